@@ -15,6 +15,7 @@ import type {
   BatchStationArriveResponse,
   ImportResult,
   ImportError,
+  ImportJob,
   ExportRequest,
 } from "./types";
 
@@ -36,6 +37,7 @@ export type {
   BatchStationArriveResponse,
   ImportResult,
   ImportError,
+  ImportJob,
   ExportRequest,
 } from "./types";
 
@@ -258,6 +260,26 @@ export function importOrders(file: File): Promise<ImportResult> {
   });
 }
 
+/**
+ * 提交异步导入任务
+ */
+export function createImportJob(file: File): Promise<ImportJob> {
+  const formData = new FormData();
+  formData.append("file", file);
+  return request.post("/orders/import/jobs", formData, {
+    headers: {
+      "Content-Type": "multipart/form-data",
+    },
+  });
+}
+
+/**
+ * 查询导入任务进度
+ */
+export function getImportJob(jobId: string): Promise<ImportJob> {
+  return request.get(`/orders/import/jobs/${jobId}`);
+}
+
 /**
  * 导出订单
  */
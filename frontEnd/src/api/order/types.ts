@@ -178,6 +178,21 @@ export interface ImportResult {
   errors: ImportError[];
 }
 
+/** 异步导入任务 */
+export interface ImportJob {
+  jobId: string;
+  fileName: string;
+  status: "queued" | "running" | "completed" | "failed";
+  processedRows: number; // 已处理行数
+  successRows: number; // 已成功行数
+  failedRows: number; // 已失败行数
+  chunkErrors: number[]; // 各批次失败行数
+  message?: string; // 失败原因
+  result?: ImportResult; // 完成后的导入结果
+  createTime: string;
+  finishTime?: string;
+}
+
 /** 导出请求 */
 export interface ExportRequest {
   ids?: number[]; // 指定导出的订单ID（可选）
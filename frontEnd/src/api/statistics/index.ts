@@ -6,6 +6,8 @@ import type {
   StatusDistribution,
   TopCitiesParams,
   TrendParams,
+  DashboardData,
+  DashboardParams,
 } from "./types";
 
 export type {
@@ -15,8 +17,18 @@ export type {
   StatusDistribution,
   TopCitiesParams,
   TrendParams,
+  DashboardData,
+  DashboardParams,
 } from "./types";
 
+/**
+ * 获取仪表盘数据（一次请求返回概览、趋势、状态分布、热门城市和快递公司统计）
+ * GET /api/statistics/dashboard?days=7&limit=10
+ */
+export function getDashboard(params?: DashboardParams): Promise<DashboardData> {
+  return request.get("/statistics/dashboard", { params });
+}
+
 /**
  * 获取统计概览
  * GET /api/statistics/overview
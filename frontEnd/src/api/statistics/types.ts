@@ -43,6 +43,26 @@ export interface TopCitiesParams {
   limit?: number; // 返回数量限制，默认10
 }
 
+/**
+ * 仪表盘数据（概览、趋势、状态分布、热门城市、快递公司统计一次返回）
+ */
+export interface DashboardData {
+  overview: StatisticsOverview;
+  trend: TrendData;
+  statusDistribution: StatusDistribution;
+  topOriginCities: DistributionData; // 热门发货城市
+  topDestinationCities: DistributionData; // 热门收货城市
+  expressCompanies: DistributionData;
+}
+
+/**
+ * 仪表盘查询参数
+ */
+export interface DashboardParams {
+  days?: number; // 趋势天数，默认7
+  limit?: number; // 热门城市数量，默认10
+}
+
 /**
  * 订单趋势查询参数
  */
@@ -5,7 +5,10 @@ import com.example.demo.dto.BatchOrderRequest;
 import com.example.demo.dto.BatchResult;
 import com.example.demo.dto.ExportRequest;
 import com.example.demo.dto.ImportError;
+import com.example.demo.dto.ImportJobStatus;
 import com.example.demo.dto.ImportResultDTO;
+import com.example.demo.dto.OrderLookupRequest;
+import com.example.demo.dto.OrderLookupResult;
 import com.example.demo.dto.PageResult;
 import com.example.demo.dto.RoutePlanRequest;
 import com.example.demo.dto.RoutePlanResponse;
@@ -16,10 +19,12 @@ import com.example.demo.entity.OperationLog;
 import com.example.demo.entity.Order;
 import com.example.demo.service.AMapService;
 import com.example.demo.service.AuthService;
+import com.example.demo.service.ImportJobService;
 import com.example.demo.service.OrderService;
 import com.example.demo.service.OrderStatusService;
 import com.example.demo.service.StationStatusService;
 import com.example.demo.util.ExcelUtil;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -49,18 +54,25 @@ public class OrderController {
     private final StationStatusService stationStatusService;
     private final AuthService authService;
     private final ExcelUtil excelUtil;
+    private final ImportJobService importJobService;
+    
+    // 导入文件大小上限（MB），导入为流式读取，共享字符串表写入临时文件，只有当前批次常驻堆内存
+    @Value("${app.import.max-file-size-mb:500}")
+    private long maxImportFileSizeMb;
     
     public OrderController(OrderService orderService, AMapService aMapService, 
                           OrderStatusService orderStatusService,
                           StationStatusService stationStatusService,
                           AuthService authService,
-                          ExcelUtil excelUtil) {
+                          ExcelUtil excelUtil,
+                          ImportJobService importJobService) {
         this.orderService = orderService;
         this.aMapService = aMapService;
         this.orderStatusService = orderStatusService;
         this.stationStatusService = stationStatusService;
         this.authService = authService;
         this.excelUtil = excelUtil;
+        this.importJobService = importJobService;
     }
     
     /**
@@ -72,6 +84,14 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
+    /**
+     * 订单缓存命中率等指标
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(orderService.getCacheStats()));
+    }
+
     /**
      * 买家订单列表（根据token自动获取手机号过滤）
      */
@@ -82,7 +102,9 @@ public class OrderController {
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(required = false) String orderNo,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String cargoName) {
+            @RequestParam(required = false) String cargoName,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "exact") String count) {
         
         String phone = getPhoneFromToken(authorization);
         if (phone == null || phone.isEmpty()) {
@@ -90,9 +112,14 @@ public class OrderController {
                     .body(ApiResponse.error(401, "未登录或非买家用户"));
         }
         
-        PageResult<Order> result = orderService.getOrders(page, pageSize, orderNo, null, status, null, 
-            cargoName, null, null, null, phone);
-        return ResponseEntity.ok(ApiResponse.success(result));
+        try {
+            PageResult<Order> result = orderService.getOrders(page, pageSize, orderNo, null, status, null, 
+                cargoName, null, null, null, phone, after, count);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        }
     }
 
     /**
@@ -123,7 +150,9 @@ public class OrderController {
             @RequestParam(required = false) String orderNo,
             @RequestParam(required = false) String trackingNo,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String cargoName) {
+            @RequestParam(required = false) String cargoName,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "exact") String count) {
         
         String phone = getPhoneFromToken(authorization);
         if (phone == null || phone.isEmpty()) {
@@ -131,8 +160,14 @@ public class OrderController {
                     .body(ApiResponse.error(401, "未登录或非卖家用户"));
         }
         
-        PageResult<Order> result = orderService.getOrdersBySenderPhone(page, pageSize, orderNo, trackingNo, status, cargoName, phone);
-        return ResponseEntity.ok(ApiResponse.success(result));
+        try {
+            PageResult<Order> result = orderService.getOrdersBySenderPhone(page, pageSize, orderNo, trackingNo,
+                status, cargoName, phone, after, count);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        }
     }
 
     /**
@@ -167,6 +202,10 @@ public class OrderController {
         }
     }
 
+    /**
+     * 订单列表
+     * 传 after（上一页返回的 nextCursor）时按游标翻页；count=exact|none 控制总数计算方式，其他值返回 400
+     */
     @GetMapping
     public ResponseEntity<ApiResponse<PageResult<Order>>> getOrders(
             @RequestParam(defaultValue = "1") int page,
@@ -179,10 +218,17 @@ public class OrderController {
             @RequestParam(required = false) String expressCompany,
             @RequestParam(required = false) String senderName,
             @RequestParam(required = false) String receiverName,
-            @RequestParam(required = false) String receiverPhone) {
-        PageResult<Order> result = orderService.getOrders(page, pageSize, orderNo, trackingNo, status, cargoType, 
-            cargoName, expressCompany, senderName, receiverName, receiverPhone);
-        return ResponseEntity.ok(ApiResponse.success(result));
+            @RequestParam(required = false) String receiverPhone,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "exact") String count) {
+        try {
+            PageResult<Order> result = orderService.getOrders(page, pageSize, orderNo, trackingNo, status,
+                cargoType, cargoName, expressCompany, senderName, receiverName, receiverPhone, after, count);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        }
     }
 
     /**
@@ -214,6 +260,21 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(order));
     }
 
+    /**
+     * 批量查询订单（支持订单号或运单号），一次请求取回多个订单详情
+     * POST /api/orders/lookup
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<OrderLookupResult>> lookupOrders(@RequestBody OrderLookupRequest request) {
+        try {
+            OrderLookupResult result = orderService.lookupOrders(request.getValues(), request.getQueryType());
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+
     /**
      * 删除订单
      */
@@ -516,17 +577,10 @@ public class OrderController {
      */
     @PostMapping("/import")
     public ResponseEntity<ApiResponse<ImportResultDTO>> importOrders(@RequestParam("file") MultipartFile file) {
-        // 验证文件类型
-        String filename = file.getOriginalFilename();
-        if (filename == null || !filename.toLowerCase().endsWith(".xlsx")) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(400, "请上传 .xlsx 格式的文件"));
-        }
-        
-        // 验证文件大小（10MB）
-        if (file.getSize() > 10 * 1024 * 1024) {
+        String invalid = validateImportFile(file);
+        if (invalid != null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(400, "文件大小不能超过 10MB"));
+                    .body(ApiResponse.error(400, invalid));
         }
         
         try {
@@ -540,6 +594,60 @@ public class OrderController {
         }
     }
 
+    /**
+     * 提交异步导入任务，文件落盘后立即返回任务号
+     * POST /api/orders/import/jobs
+     */
+    @PostMapping("/import/jobs")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> createImportJob(@RequestParam("file") MultipartFile file) {
+        String invalid = validateImportFile(file);
+        if (invalid != null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(400, invalid));
+        }
+        
+        try {
+            ImportJobStatus job = importJobService.submit(file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("导入任务已提交", job));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(503, e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "文件保存失败"));
+        }
+    }
+
+    /**
+     * 查询导入任务进度和结果
+     * GET /api/orders/import/jobs/{jobId}
+     */
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> getImportJob(@PathVariable String jobId) {
+        ImportJobStatus job = importJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(404, "导入任务不存在或已过期"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(job));
+    }
+
+    /**
+     * 校验导入文件类型和大小
+     * @return 错误信息，校验通过返回 null
+     */
+    private String validateImportFile(MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.toLowerCase().endsWith(".xlsx")) {
+            return "请上传 .xlsx 格式的文件";
+        }
+        if (file.getSize() > maxImportFileSizeMb * 1024 * 1024) {
+            return "文件大小不能超过 " + maxImportFileSizeMb + "MB";
+        }
+        return null;
+    }
+
     /**
      * 导出订单
      * POST /api/orders/export
@@ -1,7 +1,11 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ActiveUserStatistics;
 import com.example.demo.dto.ApiResponse;
+import com.example.demo.dto.CargoStatistics;
+import com.example.demo.dto.DashboardData;
 import com.example.demo.dto.DistributionData;
+import com.example.demo.dto.LeadTimeStatistics;
 import com.example.demo.dto.StatisticsOverview;
 import com.example.demo.dto.TrendData;
 import com.example.demo.service.StatisticsService;
@@ -20,6 +24,18 @@ public class StatisticsController {
         this.statisticsService = statisticsService;
     }
 
+    /**
+     * 获取仪表盘数据（概览、趋势、状态分布、热门城市、快递公司统计一次返回）
+     * GET /api/statistics/dashboard?days=7&limit=10（days 与趋势相同，最多 max-trend-days 天）
+     */
+    @GetMapping("/dashboard")
+    public ApiResponse<DashboardData> getDashboard(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "10") int limit) {
+        DashboardData dashboard = statisticsService.getDashboard(days, limit);
+        return ApiResponse.success(dashboard);
+    }
+
     /**
      * 获取统计概览
      * GET /api/statistics/overview
@@ -32,7 +48,7 @@ public class StatisticsController {
 
     /**
      * 获取订单趋势
-     * GET /api/statistics/trend?days=7
+     * GET /api/statistics/trend?days=7（最多 max-trend-days 天）
      */
     @GetMapping("/trend")
     public ApiResponse<TrendData> getTrend(@RequestParam(defaultValue = "7") int days) {
@@ -62,6 +78,21 @@ public class StatisticsController {
         return ApiResponse.success(cities);
     }
 
+    /**
+     * 获取行政区下钻分布（省 -> 市 -> 区县），可按状态、快递公司过滤
+     * GET /api/statistics/regions?type=origin&province=浙江省&city=杭州市&status=completed&expressCompany=sf
+     */
+    @GetMapping("/regions")
+    public ApiResponse<DistributionData> getRegionDistribution(
+            @RequestParam(defaultValue = "origin") String type,
+            @RequestParam(required = false) String province,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String expressCompany) {
+        DistributionData regions = statisticsService.getRegionDistribution(type, province, city, status, expressCompany);
+        return ApiResponse.success(regions);
+    }
+
     /**
      * 获取快递公司统计
      * GET /api/statistics/express-companies
@@ -71,4 +102,34 @@ public class StatisticsController {
         DistributionData companies = statisticsService.getExpressCompanies();
         return ApiResponse.success(companies);
     }
+
+    /**
+     * 获取货物类型统计
+     * GET /api/statistics/cargo?days=30
+     */
+    @GetMapping("/cargo")
+    public ApiResponse<CargoStatistics> getCargoStatistics(@RequestParam(defaultValue = "30") int days) {
+        CargoStatistics cargo = statisticsService.getCargoStatistics(days);
+        return ApiResponse.success(cargo);
+    }
+
+    /**
+     * 获取活跃寄件人 / 收件人统计（按手机号去重，近似值，相对误差约 1%）
+     * GET /api/statistics/active-users?days=30（最多 distinct-phones-retention-days 天）
+     */
+    @GetMapping("/active-users")
+    public ApiResponse<ActiveUserStatistics> getActiveUsers(@RequestParam(defaultValue = "30") int days) {
+        ActiveUserStatistics activeUsers = statisticsService.getActiveUsers(days);
+        return ApiResponse.success(activeUsers);
+    }
+
+    /**
+     * 获取各快递公司配送时长分位数（p50 / p95 / p99，单位小时）
+     * GET /api/statistics/lead-times?days=30（最多 lead-time-retention-days 天）
+     */
+    @GetMapping("/lead-times")
+    public ApiResponse<LeadTimeStatistics> getLeadTimes(@RequestParam(defaultValue = "30") int days) {
+        LeadTimeStatistics leadTimes = statisticsService.getLeadTimes(days);
+        return ApiResponse.success(leadTimes);
+    }
 }
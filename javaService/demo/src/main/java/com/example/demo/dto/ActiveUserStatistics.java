@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * 活跃寄件人 / 收件人统计（按手机号去重，HyperLogLog 近似值）
+ */
+public class ActiveUserStatistics {
+    private List<String> dates;         // 日期数组
+    private List<Long> senders;         // 每日去重寄件人数
+    private List<Long> receivers;       // 每日去重收件人数
+    private long totalSenders;          // 整个区间去重寄件人数（不是每日之和）
+    private long totalReceivers;        // 整个区间去重收件人数
+    private double relativeError;       // 相对标准误差
+
+    public ActiveUserStatistics() {}
+
+    public ActiveUserStatistics(List<String> dates, List<Long> senders, List<Long> receivers,
+                                long totalSenders, long totalReceivers, double relativeError) {
+        this.dates = dates;
+        this.senders = senders;
+        this.receivers = receivers;
+        this.totalSenders = totalSenders;
+        this.totalReceivers = totalReceivers;
+        this.relativeError = relativeError;
+    }
+
+    public List<String> getDates() { return dates; }
+    public void setDates(List<String> dates) { this.dates = dates; }
+
+    public List<Long> getSenders() { return senders; }
+    public void setSenders(List<Long> senders) { this.senders = senders; }
+
+    public List<Long> getReceivers() { return receivers; }
+    public void setReceivers(List<Long> receivers) { this.receivers = receivers; }
+
+    public long getTotalSenders() { return totalSenders; }
+    public void setTotalSenders(long totalSenders) { this.totalSenders = totalSenders; }
+
+    public long getTotalReceivers() { return totalReceivers; }
+    public void setTotalReceivers(long totalReceivers) { this.totalReceivers = totalReceivers; }
+
+    public double getRelativeError() { return relativeError; }
+    public void setRelativeError(double relativeError) { this.relativeError = relativeError; }
+}
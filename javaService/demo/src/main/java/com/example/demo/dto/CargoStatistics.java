@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * 货物类型统计（订单数、总重量、总体积，按订单数降序）
+ */
+public class CargoStatistics {
+    private List<String> labels;        // 货物类型
+    private List<Long> counts;          // 订单数
+    private List<Double> totalWeights;  // 总重量(kg)
+    private List<Double> totalVolumes;  // 总体积(m³)
+
+    public CargoStatistics() {}
+
+    public CargoStatistics(List<String> labels, List<Long> counts, List<Double> totalWeights, List<Double> totalVolumes) {
+        this.labels = labels;
+        this.counts = counts;
+        this.totalWeights = totalWeights;
+        this.totalVolumes = totalVolumes;
+    }
+
+    public List<String> getLabels() { return labels; }
+    public void setLabels(List<String> labels) { this.labels = labels; }
+
+    public List<Long> getCounts() { return counts; }
+    public void setCounts(List<Long> counts) { this.counts = counts; }
+
+    public List<Double> getTotalWeights() { return totalWeights; }
+    public void setTotalWeights(List<Double> totalWeights) { this.totalWeights = totalWeights; }
+
+    public List<Double> getTotalVolumes() { return totalVolumes; }
+    public void setTotalVolumes(List<Double> totalVolumes) { this.totalVolumes = totalVolumes; }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.dto;
+
+import java.util.Map;
+
+/**
+ * 仪表盘聚合数据（一次请求返回概览、趋势、状态分布、热门城市和快递公司统计）
+ */
+public class DashboardData {
+    private StatisticsOverview overview;              // 统计概览
+    private TrendData trend;                          // 订单趋势
+    private Map<String, Long> statusDistribution;     // 状态分布
+    private DistributionData topOriginCities;         // 热门发货城市
+    private DistributionData topDestinationCities;    // 热门收货城市
+    private DistributionData expressCompanies;        // 快递公司统计
+
+    public DashboardData() {}
+
+    public DashboardData(StatisticsOverview overview, TrendData trend, Map<String, Long> statusDistribution,
+                         DistributionData topOriginCities, DistributionData topDestinationCities,
+                         DistributionData expressCompanies) {
+        this.overview = overview;
+        this.trend = trend;
+        this.statusDistribution = statusDistribution;
+        this.topOriginCities = topOriginCities;
+        this.topDestinationCities = topDestinationCities;
+        this.expressCompanies = expressCompanies;
+    }
+
+    public StatisticsOverview getOverview() { return overview; }
+    public void setOverview(StatisticsOverview overview) { this.overview = overview; }
+
+    public TrendData getTrend() { return trend; }
+    public void setTrend(TrendData trend) { this.trend = trend; }
+
+    public Map<String, Long> getStatusDistribution() { return statusDistribution; }
+    public void setStatusDistribution(Map<String, Long> statusDistribution) { this.statusDistribution = statusDistribution; }
+
+    public DistributionData getTopOriginCities() { return topOriginCities; }
+    public void setTopOriginCities(DistributionData topOriginCities) { this.topOriginCities = topOriginCities; }
+
+    public DistributionData getTopDestinationCities() { return topDestinationCities; }
+    public void setTopDestinationCities(DistributionData topDestinationCities) { this.topDestinationCities = topDestinationCities; }
+
+    public DistributionData getExpressCompanies() { return expressCompanies; }
+    public void setExpressCompanies(DistributionData expressCompanies) { this.expressCompanies = expressCompanies; }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 导入任务状态
+ */
+public class ImportJobStatus {
+    private String jobId;
+    private String fileName;
+    private String status;              // queued, running, completed, failed
+    private int processedRows;          // 已处理行数
+    private int successRows;            // 已成功导入行数
+    private int failedRows;             // 已失败行数
+    private List<Integer> chunkErrors;  // 各批次失败行数（按提交顺序）
+    private String message;             // 失败原因
+    private ImportResultDTO result;     // 完成后的导入结果
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime finishTime;
+
+    public ImportJobStatus() {}
+
+    public ImportJobStatus(String jobId, String fileName, String status, int processedRows, int successRows,
+                           int failedRows, List<Integer> chunkErrors, String message, ImportResultDTO result,
+                           LocalDateTime createTime, LocalDateTime finishTime) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.status = status;
+        this.processedRows = processedRows;
+        this.successRows = successRows;
+        this.failedRows = failedRows;
+        this.chunkErrors = chunkErrors;
+        this.message = message;
+        this.result = result;
+        this.createTime = createTime;
+        this.finishTime = finishTime;
+    }
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getProcessedRows() { return processedRows; }
+    public void setProcessedRows(int processedRows) { this.processedRows = processedRows; }
+
+    public int getSuccessRows() { return successRows; }
+    public void setSuccessRows(int successRows) { this.successRows = successRows; }
+
+    public int getFailedRows() { return failedRows; }
+    public void setFailedRows(int failedRows) { this.failedRows = failedRows; }
+
+    public List<Integer> getChunkErrors() { return chunkErrors; }
+    public void setChunkErrors(List<Integer> chunkErrors) { this.chunkErrors = chunkErrors; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public ImportResultDTO getResult() { return result; }
+    public void setResult(ImportResultDTO result) { this.result = result; }
+
+    public LocalDateTime getCreateTime() { return createTime; }
+    public void setCreateTime(LocalDateTime createTime) { this.createTime = createTime; }
+
+    public LocalDateTime getFinishTime() { return finishTime; }
+    public void setFinishTime(LocalDateTime finishTime) { this.finishTime = finishTime; }
+}
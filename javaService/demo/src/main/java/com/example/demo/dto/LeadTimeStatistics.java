@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * 配送时长统计（发货到签收，单位小时，按快递公司，第一项为全部公司合计）
+ */
+public class LeadTimeStatistics {
+    private List<String> labels;       // 快递公司
+    private List<Long> counts;         // 已签收订单数
+    private List<Double> p50;          // 中位数
+    private List<Double> p95;          // 95 分位
+    private List<Double> p99;          // 99 分位
+    private double relativeAccuracy;   // 分位数相对误差上界
+
+    public LeadTimeStatistics() {}
+
+    public LeadTimeStatistics(List<String> labels, List<Long> counts, List<Double> p50, List<Double> p95,
+                              List<Double> p99, double relativeAccuracy) {
+        this.labels = labels;
+        this.counts = counts;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    public List<String> getLabels() { return labels; }
+    public void setLabels(List<String> labels) { this.labels = labels; }
+
+    public List<Long> getCounts() { return counts; }
+    public void setCounts(List<Long> counts) { this.counts = counts; }
+
+    public List<Double> getP50() { return p50; }
+    public void setP50(List<Double> p50) { this.p50 = p50; }
+
+    public List<Double> getP95() { return p95; }
+    public void setP95(List<Double> p95) { this.p95 = p95; }
+
+    public List<Double> getP99() { return p99; }
+    public void setP99(List<Double> p99) { this.p99 = p99; }
+
+    public double getRelativeAccuracy() { return relativeAccuracy; }
+    public void setRelativeAccuracy(double relativeAccuracy) { this.relativeAccuracy = relativeAccuracy; }
+}
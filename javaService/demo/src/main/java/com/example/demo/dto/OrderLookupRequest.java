@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * 批量订单查询请求
+ */
+public class OrderLookupRequest {
+    private List<String> values;       // 订单号或运单号
+    private String queryType;          // orderNo（默认）或 trackingNo
+
+    public OrderLookupRequest() {}
+
+    public OrderLookupRequest(List<String> values, String queryType) {
+        this.values = values;
+        this.queryType = queryType;
+    }
+
+    public List<String> getValues() { return values; }
+    public void setValues(List<String> values) { this.values = values; }
+
+    public String getQueryType() { return queryType; }
+    public void setQueryType(String queryType) { this.queryType = queryType; }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Order;
+
+import java.util.List;
+
+/**
+ * 批量订单查询结果
+ */
+public class OrderLookupResult {
+    private List<Order> orders;        // 查到的订单，按请求顺序
+    private List<String> notFound;     // 不存在的订单号或运单号
+
+    public OrderLookupResult() {}
+
+    public OrderLookupResult(List<Order> orders, List<String> notFound) {
+        this.orders = orders;
+        this.notFound = notFound;
+    }
+
+    public List<Order> getOrders() { return orders; }
+    public void setOrders(List<Order> orders) { this.orders = orders; }
+
+    public List<String> getNotFound() { return notFound; }
+    public void setNotFound(List<String> notFound) { this.notFound = notFound; }
+}
@@ -4,15 +4,24 @@ import java.util.List;
 
 public class PageResult<T> {
     private List<T> data;
-    private long total;
+    private long total;       // 总数，不计算时为 -1
+    private Long nextCursor;  // 下一页游标（本页最后一条的 id），没有下一页时为 null
 
     public PageResult(List<T> data, long total) {
         this.data = data;
         this.total = total;
     }
 
+    public PageResult(List<T> data, long total, Long nextCursor) {
+        this.data = data;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
     public List<T> getData() { return data; }
     public void setData(List<T> data) { this.data = data; }
     public long getTotal() { return total; }
     public void setTotal(long total) { this.total = total; }
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
 }
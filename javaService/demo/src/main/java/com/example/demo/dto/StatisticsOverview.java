@@ -9,6 +9,10 @@ public class StatisticsOverview {
     private long pendingOrders;     // 待处理订单数
     private double completionRate;  // 完成率 (0-100)
     private double monthGrowth;     // 月环比增长率
+    private long todaySenders;      // 今日去重寄件人数（近似值）
+    private long todayReceivers;    // 今日去重收件人数（近似值）
+    private long monthSenders;      // 本月去重寄件人数（近似值）
+    private long monthReceivers;    // 本月去重收件人数（近似值）
 
     public StatisticsOverview() {}
 
@@ -35,4 +39,16 @@ public class StatisticsOverview {
 
     public double getMonthGrowth() { return monthGrowth; }
     public void setMonthGrowth(double monthGrowth) { this.monthGrowth = monthGrowth; }
+
+    public long getTodaySenders() { return todaySenders; }
+    public void setTodaySenders(long todaySenders) { this.todaySenders = todaySenders; }
+
+    public long getTodayReceivers() { return todayReceivers; }
+    public void setTodayReceivers(long todayReceivers) { this.todayReceivers = todayReceivers; }
+
+    public long getMonthSenders() { return monthSenders; }
+    public void setMonthSenders(long monthSenders) { this.monthSenders = monthSenders; }
+
+    public long getMonthReceivers() { return monthReceivers; }
+    public void setMonthReceivers(long monthReceivers) { this.monthReceivers = monthReceivers; }
 }
@@ -9,10 +9,14 @@ import java.time.LocalDateTime;
  * 记录订单状态变更的操作日志
  */
 @Entity
-@Table(name = "operation_logs")
+@Table(name = "operation_logs", indexes = {
+    @Index(name = "idx_operation_logs_order_no_time", columnList = "order_no, operate_time")
+})
 public class OperationLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "operation_logs_id")
+    @TableGenerator(name = "operation_logs_id", table = "id_generators", pkColumnName = "name",
+                    valueColumnName = "next_val", pkColumnValue = "operation_logs", allocationSize = 500)
     private Long id;
     
     @Column(length = 50)
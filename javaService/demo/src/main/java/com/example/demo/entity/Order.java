@@ -1,13 +1,23 @@
 package com.example.demo.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_created_at", columnList = "created_at"),
+    @Index(name = "idx_orders_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_orders_sender_phone_id", columnList = "sender_phone, id"),
+    @Index(name = "idx_orders_receiver_phone_id", columnList = "receiver_phone, id"),
+    @Index(name = "idx_orders_status_id", columnList = "status, id"),
+    @Index(name = "idx_orders_tracking_no", columnList = "tracking_no")
+})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_generators", pkColumnName = "name",
+                    valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 500)
     private Long id;
     
     @Column(unique = true, length = 50)
@@ -56,6 +66,9 @@ public class Order {
     @Column(length = 50)
     private String createTime;
     
+    @JsonIgnore
+    private LocalDateTime createdAt;  // 创建时间（与 createTime 同值，带索引，用于统计查询）
+    
     @Column(length = 50)
     private String trackingNo;  // 运单号（发货时生成）
     
@@ -71,9 +84,56 @@ public class Order {
     private Double originLat;   // 发货地纬度
     private Double destLng;     // 收货地经度
     private Double destLat;     // 收货地纬度
+    
+    @JsonIgnore
+    private LocalDateTime updatedAt;  // 最后修改时间（统计汇总任务的增量水位）
 
     public Order() {}
 
+    @PrePersist
+    @PreUpdate
+    void touchUpdatedAt() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * 复制订单（各字段均为不可变类型，浅拷贝即可），返回的对象不受持久化上下文管理
+     */
+    public Order copy() {
+        Order copy = new Order();
+        copy.id = id;
+        copy.orderNo = orderNo;
+        copy.cargoName = cargoName;
+        copy.cargoType = cargoType;
+        copy.cargoWeight = cargoWeight;
+        copy.cargoVolume = cargoVolume;
+        copy.cargoQuantity = cargoQuantity;
+        copy.remark = remark;
+        copy.expressCompany = expressCompany;
+        copy.expressCompanyName = expressCompanyName;
+        copy.origin = origin;
+        copy.destination = destination;
+        copy.senderName = senderName;
+        copy.receiverName = receiverName;
+        copy.senderPhone = senderPhone;
+        copy.receiverPhone = receiverPhone;
+        copy.status = status;
+        copy.createTime = createTime;
+        copy.createdAt = createdAt;
+        copy.trackingNo = trackingNo;
+        copy.duration = duration;
+        copy.trackPointsJson = trackPointsJson;
+        copy.shipTime = shipTime;
+        copy.receiveTime = receiveTime;
+        copy.cancelTime = cancelTime;
+        copy.originLng = originLng;
+        copy.originLat = originLat;
+        copy.destLng = destLng;
+        copy.destLat = destLat;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -111,6 +171,8 @@ public class Order {
     public void setStatus(String status) { this.status = status; }
     public String getCreateTime() { return createTime; }
     public void setCreateTime(String createTime) { this.createTime = createTime; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public String getTrackingNo() { return trackingNo; }
     public void setTrackingNo(String trackingNo) { this.trackingNo = trackingNo; }
     public Integer getDuration() { return duration; }
@@ -131,4 +193,6 @@ public class Order {
     public void setDestLng(Double destLng) { this.destLng = destLng; }
     public Double getDestLat() { return destLat; }
     public void setDestLat(Double destLat) { this.destLat = destLat; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
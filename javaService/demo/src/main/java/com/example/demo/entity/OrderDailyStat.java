@@ -0,0 +1,62 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 订单日汇总实体
+ * 按 (日期, 状态, 快递公司, 发货城市, 收货城市) 聚合的订单数，由 OrderDailyStatsAggregator 定时维护
+ */
+@Entity
+@Table(name = "order_daily_stats", indexes = {
+    @Index(name = "idx_order_daily_stats_date", columnList = "stat_date")
+})
+public class OrderDailyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private LocalDate statDate;       // 订单创建日期
+    
+    @Column(length = 20)
+    private String status;
+    
+    @Column(length = 50)
+    private String expressCompany;    // 快递公司代码，空串表示未填写
+    
+    @Column(length = 255)
+    private String originCity;        // 发货城市，空串表示未填写
+    
+    @Column(length = 255)
+    private String destinationCity;   // 收货城市，空串表示未填写
+    
+    private Long orderCount;
+
+    public OrderDailyStat() {}
+
+    public OrderDailyStat(LocalDate statDate, String status, String expressCompany,
+                          String originCity, String destinationCity, Long orderCount) {
+        this.statDate = statDate;
+        this.status = status;
+        this.expressCompany = expressCompany;
+        this.originCity = originCity;
+        this.destinationCity = destinationCity;
+        this.orderCount = orderCount;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getExpressCompany() { return expressCompany; }
+    public void setExpressCompany(String expressCompany) { this.expressCompany = expressCompany; }
+    public String getOriginCity() { return originCity; }
+    public void setOriginCity(String originCity) { this.originCity = originCity; }
+    public String getDestinationCity() { return destinationCity; }
+    public void setDestinationCity(String destinationCity) { this.destinationCity = destinationCity; }
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 统计任务水位实体
+ * 记录后台汇总任务已处理到的订单修改时间
+ */
+@Entity
+@Table(name = "stat_checkpoints")
+public class StatCheckpoint {
+    @Id
+    @Column(length = 50)
+    private String name;                // 任务名
+    
+    private LocalDateTime watermark;    // 已处理到的 updated_at（含）
+    
+    private LocalDateTime updateTime;
+
+    public StatCheckpoint() {}
+
+    public StatCheckpoint(String name) {
+        this.name = name;
+        this.updateTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public LocalDateTime getWatermark() { return watermark; }
+    public void setWatermark(LocalDateTime watermark) { this.watermark = watermark; }
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 运单号序列实体
+ * 每个运单号前缀一行，记录下一个尚未分配的号段起点
+ */
+@Entity
+@Table(name = "tracking_no_sequences")
+public class TrackingNoSequence {
+    @Id
+    @Column(length = 20)
+    private String prefix;              // 运单号前缀（快递公司 trackingPrefix）
+    
+    private Long nextValue;             // 下一个号段起点
+    
+    private LocalDateTime updateTime;
+
+    public TrackingNoSequence() {}
+
+    public TrackingNoSequence(String prefix) {
+        this.prefix = prefix;
+        this.nextValue = 1L;
+        this.updateTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getPrefix() { return prefix; }
+    public void setPrefix(String prefix) { this.prefix = prefix; }
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+    public LocalDateTime getUpdateTime() { return updateTime; }
+    public void setUpdateTime(LocalDateTime updateTime) { this.updateTime = updateTime; }
+}
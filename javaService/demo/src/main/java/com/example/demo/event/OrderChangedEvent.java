@@ -0,0 +1,48 @@
+package com.example.demo.event;
+
+import com.example.demo.entity.Order;
+
+/**
+ * 订单变更事件
+ * 由 OrderService / OrderStatusService 在订单创建、状态变更、修改、删除时发布，
+ * 供内存统计、搜索索引等组件在事务提交后增量更新
+ */
+public class OrderChangedEvent {
+
+    public enum Type {
+        CREATED,         // 创建（含导入）
+        STATUS_CHANGED,  // 状态变更（发货、签收、取消）
+        UPDATED,         // 其他字段修改（如站点到达）
+        DELETED          // 删除
+    }
+
+    private final Type type;
+    private final Order order;
+    private final String fromStatus;  // 仅 STATUS_CHANGED 时有值
+
+    private OrderChangedEvent(Type type, Order order, String fromStatus) {
+        this.type = type;
+        this.order = order;
+        this.fromStatus = fromStatus;
+    }
+
+    public static OrderChangedEvent created(Order order) {
+        return new OrderChangedEvent(Type.CREATED, order, null);
+    }
+
+    public static OrderChangedEvent statusChanged(Order order, String fromStatus) {
+        return new OrderChangedEvent(Type.STATUS_CHANGED, order, fromStatus);
+    }
+
+    public static OrderChangedEvent updated(Order order) {
+        return new OrderChangedEvent(Type.UPDATED, order, null);
+    }
+
+    public static OrderChangedEvent deleted(Order order) {
+        return new OrderChangedEvent(Type.DELETED, order, null);
+    }
+
+    public Type getType() { return type; }
+    public Order getOrder() { return order; }
+    public String getFromStatus() { return fromStatus; }
+}
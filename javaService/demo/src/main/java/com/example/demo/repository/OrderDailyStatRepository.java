@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.OrderDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderDailyStatRepository extends JpaRepository<OrderDailyStat, Long> {
+    
+    @Modifying
+    @Query("DELETE FROM OrderDailyStat s WHERE s.statDate = :statDate")
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+    
+    @Query("SELECT s.statDate, SUM(s.orderCount) FROM OrderDailyStat s " +
+           "WHERE s.statDate >= :from AND s.statDate <= :to GROUP BY s.statDate")
+    List<Object[]> sumGroupByDate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Query("SELECT s.status, SUM(s.orderCount) FROM OrderDailyStat s GROUP BY s.status")
+    List<Object[]> sumGroupByStatus();
+    
+    @Query("SELECT s.expressCompany, SUM(s.orderCount) FROM OrderDailyStat s GROUP BY s.expressCompany")
+    List<Object[]> sumGroupByExpressCompany();
+    
+    @Query("SELECT s.originCity, SUM(s.orderCount) FROM OrderDailyStat s GROUP BY s.originCity")
+    List<Object[]> sumGroupByOriginCity();
+    
+    @Query("SELECT s.destinationCity, SUM(s.orderCount) FROM OrderDailyStat s GROUP BY s.destinationCity")
+    List<Object[]> sumGroupByDestinationCity();
+    
+    @Query("SELECT SUM(s.orderCount) FROM OrderDailyStat s WHERE s.statDate >= :from AND s.statDate < :to")
+    Long sumBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -5,20 +5,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
     
     Optional<Order> findByOrderNo(String orderNo);
     
     Optional<Order> findByTrackingNo(String trackingNo);
     
+    List<Order> findByOrderNoIn(Collection<String> orderNos);
+    
+    List<Order> findByTrackingNoIn(Collection<String> trackingNos);
+    
     List<Order> findByStatus(String status);
     
     List<Order> findBySenderPhone(String senderPhone);
@@ -31,6 +39,103 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
     List<Object[]> countGroupByStatus();
     
+    @Query("SELECT o.status, COUNT(o) FROM Order o WHERE o.senderPhone = :phone GROUP BY o.status")
+    List<Object[]> countBySenderPhoneGroupByStatus(@Param("phone") String phone);
+    
+    @Query("SELECT o.status, COUNT(o) FROM Order o WHERE o.receiverPhone = :phone GROUP BY o.status")
+    List<Object[]> countByReceiverPhoneGroupByStatus(@Param("phone") String phone);
+    
+    /**
+     * 按汇总维度统计指定创建时间范围内的订单数
+     */
+    @Query("SELECT o.status, o.expressCompany, o.origin, o.destination, COUNT(o) FROM Order o " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+           "GROUP BY o.status, o.expressCompany, o.origin, o.destination")
+    List<Object[]> countGroupByDimensions(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * 查询在 (from, to] 内被修改过的订单所属的创建日期
+     */
+    @Query(value = "SELECT DISTINCT DATE_FORMAT(created_at, '%Y-%m-%d') FROM orders " +
+                   "WHERE created_at IS NOT NULL AND updated_at > :from AND updated_at <= :to",
+           nativeQuery = true)
+    List<String> findCreateDatesUpdatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query(value = "SELECT DISTINCT DATE_FORMAT(created_at, '%Y-%m-%d') FROM orders WHERE created_at IS NOT NULL",
+           nativeQuery = true)
+    List<String> findAllCreateDates();
+    
+    /**
+     * created_at 待回填的下一批订单的最大 id（id 大于 afterId 的前 limit 行），没有待回填订单时返回 null
+     */
+    @Query(value = "SELECT MAX(id) FROM (SELECT id FROM orders WHERE created_at IS NULL AND id > :afterId " +
+                   "ORDER BY id LIMIT :limit) t",
+           nativeQuery = true)
+    Long findBackfillUpperId(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    /**
+     * 回填 id 在 (afterId, upToId] 内的 created_at（按 create_time 字符串解析）
+     * 只处理 yyyy-MM-dd HH:mm 和 yyyy-MM-dd HH:mm:ss 两种格式，其他格式保持为空
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET created_at = STR_TO_DATE(create_time, " +
+                   "IF(LENGTH(create_time) = 16, '%Y-%m-%d %H:%i', '%Y-%m-%d %H:%i:%s')) " +
+                   "WHERE created_at IS NULL AND id > :afterId AND id <= :upToId " +
+                   "AND create_time REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}(:[0-9]{2})?$'",
+           nativeQuery = true)
+    int backfillCreatedAt(@Param("afterId") long afterId, @Param("upToId") long upToId);
+    
+    /**
+     * 按 id 顺序分页读取列式快照所需的列（首次全量加载）
+     */
+    @Query("SELECT o.id, o.status, o.expressCompany, o.cargoType, o.origin, o.destination, " +
+           "o.createdAt, o.cargoWeight, o.cargoVolume, o.senderPhone, o.receiverPhone, o.shipTime, o.receiveTime " +
+           "FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Object[]> findColumnsAfterId(@Param("afterId") long afterId, Pageable pageable);
+    
+    /**
+     * 按 id 顺序分页读取子串搜索字段（构建 trigram 索引）
+     */
+    @Query("SELECT o.id, o.orderNo, o.trackingNo, o.cargoName, o.senderName, o.receiverName " +
+           "FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Object[]> findSearchFieldsAfterId(@Param("afterId") long afterId, Pageable pageable);
+    
+    /**
+     * 按 id 顺序分页读取订单 id（只走主键索引，用于核对列式快照中的已删除订单）
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    /**
+     * 按 (updated_at, id) 顺序分页读取 (from, to] 内被修改过的订单的列式快照列（增量刷新）
+     */
+    @Query("SELECT o.id, o.status, o.expressCompany, o.cargoType, o.origin, o.destination, " +
+           "o.createdAt, o.cargoWeight, o.cargoVolume, o.senderPhone, o.receiverPhone, o.shipTime, o.receiveTime, " +
+           "o.updatedAt FROM Order o " +
+           "WHERE (o.updatedAt > :from OR (o.updatedAt = :from AND o.id > :afterId)) AND o.updatedAt <= :to " +
+           "ORDER BY o.updatedAt, o.id")
+    List<Object[]> findColumnsUpdatedBetween(@Param("from") LocalDateTime from, @Param("afterId") long afterId,
+                                             @Param("to") LocalDateTime to, Pageable pageable);
+    
+    /**
+     * 按 (updatedAt, id) 顺序分页读取修改时间在 from 之后的订单的子串搜索字段（搜索索引增量补充）
+     */
+    @Query("SELECT o.id, o.orderNo, o.trackingNo, o.cargoName, o.senderName, o.receiverName, o.updatedAt " +
+           "FROM Order o WHERE o.updatedAt > :from OR (o.updatedAt = :from AND o.id > :afterId) " +
+           "ORDER BY o.updatedAt, o.id")
+    List<Object[]> findSearchFieldsUpdatedAfter(@Param("from") LocalDateTime from, @Param("afterId") long afterId,
+                                                Pageable pageable);
+    
+    /**
+     * 按 (updatedAt, id) 顺序分页读取修改时间在 from 之后的订单号和运单号（订单号过滤器增量补充）
+     */
+    @Query("SELECT o.id, o.orderNo, o.trackingNo, o.updatedAt FROM Order o " +
+           "WHERE o.updatedAt > :from OR (o.updatedAt = :from AND o.id > :afterId) " +
+           "ORDER BY o.updatedAt, o.id")
+    List<Object[]> findNumbersUpdatedAfter(@Param("from") LocalDateTime from, @Param("afterId") long afterId,
+                                           Pageable pageable);
+    
     boolean existsByOrderNo(String orderNo);
     
     void deleteByOrderNo(String orderNo);
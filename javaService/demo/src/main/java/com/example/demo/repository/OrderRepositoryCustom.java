@@ -0,0 +1,24 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * 订单自定义查询
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * 按偏移量分页查询列表视图，不执行 COUNT
+     * 只读取列表展示需要的字段，不加载 trackPointsJson，返回的订单不受持久化上下文管理
+     */
+    List<Order> findPage(Specification<Order> spec, Sort sort, long offset, int limit);
+
+    /**
+     * 查询全部符合条件的列表视图（导出用），字段范围同 findPage，spec 为空时不过滤
+     */
+    List<Order> findListView(Specification<Order> spec, Sort sort);
+}
@@ -0,0 +1,100 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    // 列表视图查询的字段，不含 trackPointsJson，顺序与 toListItem 对应
+    private static final String[] LIST_COLUMNS = {
+        "id", "orderNo", "cargoName", "cargoType", "cargoWeight", "cargoVolume", "cargoQuantity", "remark",
+        "expressCompany", "origin", "destination", "senderName", "receiverName", "senderPhone", "receiverPhone",
+        "status", "createTime", "trackingNo", "duration", "shipTime", "receiveTime", "cancelTime",
+        "originLng", "originLat", "destLng", "destLat"
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPage(Specification<Order> spec, Sort sort, long offset, int limit) {
+        return listQuery(spec, sort)
+            .setFirstResult(Math.toIntExact(offset))
+            .setMaxResults(limit)
+            .getResultList()
+            .stream()
+            .map(OrderRepositoryImpl::toListItem)
+            .toList();
+    }
+
+    @Override
+    public List<Order> findListView(Specification<Order> spec, Sort sort) {
+        return listQuery(spec, sort).getResultList().stream()
+            .map(OrderRepositoryImpl::toListItem)
+            .toList();
+    }
+
+    private TypedQuery<Object[]> listQuery(Specification<Order> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Order> root = query.from(Order.class);
+        Selection<?>[] selections = new Selection<?>[LIST_COLUMNS.length];
+        for (int i = 0; i < LIST_COLUMNS.length; i++) {
+            selections[i] = root.get(LIST_COLUMNS[i]);
+        }
+        query.select(cb.array(selections));
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * 投影行转换为订单（非托管实体，trackPointsJson 为空）
+     */
+    private static Order toListItem(Object[] row) {
+        Order order = new Order();
+        order.setId((Long) row[0]);
+        order.setOrderNo((String) row[1]);
+        order.setCargoName((String) row[2]);
+        order.setCargoType((String) row[3]);
+        order.setCargoWeight((Double) row[4]);
+        order.setCargoVolume((Double) row[5]);
+        order.setCargoQuantity((Integer) row[6]);
+        order.setRemark((String) row[7]);
+        order.setExpressCompany((String) row[8]);
+        order.setOrigin((String) row[9]);
+        order.setDestination((String) row[10]);
+        order.setSenderName((String) row[11]);
+        order.setReceiverName((String) row[12]);
+        order.setSenderPhone((String) row[13]);
+        order.setReceiverPhone((String) row[14]);
+        order.setStatus((String) row[15]);
+        order.setCreateTime((String) row[16]);
+        order.setTrackingNo((String) row[17]);
+        order.setDuration((Integer) row[18]);
+        order.setShipTime((LocalDateTime) row[19]);
+        order.setReceiveTime((LocalDateTime) row[20]);
+        order.setCancelTime((LocalDateTime) row[21]);
+        order.setOriginLng((Double) row[22]);
+        order.setOriginLat((Double) row[23]);
+        order.setDestLng((Double) row[24]);
+        order.setDestLat((Double) row[25]);
+        return order;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StatCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StatCheckpointRepository extends JpaRepository<StatCheckpoint, String> {
+    
+    /**
+     * 加行锁读取水位，汇总任务与订单删除通过该锁串行化
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM StatCheckpoint c WHERE c.name = :name")
+    Optional<StatCheckpoint> findForUpdate(@Param("name") String name);
+}
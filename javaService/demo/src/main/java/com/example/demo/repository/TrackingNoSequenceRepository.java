@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.TrackingNoSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TrackingNoSequenceRepository extends JpaRepository<TrackingNoSequence, String> {
+    
+    /**
+     * 加行锁读取序列，多个实例分配号段时通过该锁串行化
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TrackingNoSequence s WHERE s.prefix = :prefix")
+    Optional<TrackingNoSequence> findForUpdate(@Param("prefix") String prefix);
+}
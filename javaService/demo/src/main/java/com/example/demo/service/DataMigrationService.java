@@ -14,10 +14,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -30,6 +32,11 @@ public class DataMigrationService {
     private static final Logger log = LoggerFactory.getLogger(DataMigrationService.class);
     private static final String ORDERS_FILE = "data/orders.json";
     private static final String EXPRESS_COMPANIES_FILE = "data/express-companies.json";
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    // 与实体 @TableGenerator 的 allocationSize 一致
+    private static final int ID_ALLOCATION_SIZE = 500;
+    private static final String[] ID_GENERATOR_TABLES = {"orders", "operation_logs"};
 
     @Autowired
     private OrderRepository orderRepository;
@@ -37,6 +44,9 @@ public class DataMigrationService {
     @Autowired
     private ExpressCompanyRepository expressCompanyRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Value("${app.migration.enabled:true}")
     private boolean migrationEnabled;
 
@@ -50,6 +60,7 @@ public class DataMigrationService {
 
     @PostConstruct
     public void init() {
+        alignIdGenerators();
         if (migrationEnabled) {
             migrateData();
         }
@@ -68,9 +79,26 @@ public class DataMigrationService {
         // 迁移订单数据
         migrateOrders();
         
+        // 回填订单创建时间列
+        backfillCreatedAt();
+        
         log.info("数据迁移完成");
     }
 
+    /**
+     * 校准主键号段表
+     * 订单和操作日志主键由 id_generators 表按号段分配（支持批量插入），
+     * 原先自增生成的数据已占用的 id 必须跳过，保证号段起点大于表中最大 id
+     */
+    private void alignIdGenerators() {
+        for (String table : ID_GENERATOR_TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long floor = (maxId != null ? maxId : 0) + 1 + ID_ALLOCATION_SIZE;
+            jdbcTemplate.update("INSERT INTO id_generators (name, next_val) VALUES (?, ?) "
+                + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, ?)", table, floor, floor);
+        }
+    }
+
     /**
      * 迁移快递公司数据
      */
@@ -121,9 +149,17 @@ public class DataMigrationService {
             List<JsonOrder> jsonOrders = objectMapper.readValue(
                 file, new TypeReference<List<JsonOrder>>() {});
             
+            // 分批 saveAll，每批一个事务，由 JDBC 批量插入
+            List<Order> batch = new ArrayList<>(INSERT_BATCH_SIZE);
             for (JsonOrder jsonOrder : jsonOrders) {
-                Order order = convertToEntity(jsonOrder);
-                orderRepository.save(order);
+                batch.add(convertToEntity(jsonOrder));
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    orderRepository.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                orderRepository.saveAll(batch);
             }
             
             log.info("成功迁移 {} 条订单数据", jsonOrders.size());
@@ -132,6 +168,30 @@ public class DataMigrationService {
         }
     }
 
+    /**
+     * 回填 created_at 列
+     * 旧数据只有字符串类型的 create_time，按 id 区间分批解析写入带索引的 created_at，已回填的行不会重复处理；
+     * 每批区间只向前推进，无法解析的行保持为空也不会导致重复处理同一批
+     */
+    private void backfillCreatedAt() {
+        int total = 0;
+        long afterId = 0;
+        Long upToId;
+        while ((upToId = orderRepository.findBackfillUpperId(afterId, BACKFILL_BATCH_SIZE)) != null) {
+            try {
+                total += orderRepository.backfillCreatedAt(afterId, upToId);
+            } catch (Exception e) {
+                // 严格模式下非法日期（如 2024-02-30）会使整批失败，跳过该批不影响启动
+                log.warn("回填 created_at 失败，跳过 id ({}, {}]: {}", afterId, upToId, e.getMessage());
+            }
+            afterId = upToId;
+        }
+        
+        if (total > 0) {
+            log.info("成功回填 {} 条订单的 created_at", total);
+        }
+    }
+
     /**
      * 将JSON订单转换为Entity
      */
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.util.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 活跃寄件人 / 收件人去重计数
+ * 按订单创建日期为每天维护一个寄件人手机号和一个收件人手机号的 HyperLogLog 草图（各 16KB），
+ * 任意日期范围的去重数由范围内各天草图合并得到，相对误差约 0.8%。
+ * 启动时从订单列式快照的手机号哈希列初始化，之后在订单创建（含导入）提交后写入；
+ * 草图不支持删除，已删除订单在下次重启前仍计入。
+ */
+@Service
+@DependsOn("orderColumnStore")
+public class DistinctPhoneCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(DistinctPhoneCounter.class);
+
+    private final Map<LocalDate, HyperLogLog> senders = new ConcurrentHashMap<>();
+    private final Map<LocalDate, HyperLogLog> receivers = new ConcurrentHashMap<>();
+
+    // 保留天数，更早的草图会被清理
+    @Value("${app.statistics.distinct-phones-retention-days:400}")
+    private int retentionDays;
+
+    @Autowired
+    private OrderColumnStore columnStore;
+
+    @PostConstruct
+    public void init() {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        columnStore.forEachPhoneHash((createdEpochSecond, senderHash, receiverHash) -> {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochSecond(createdEpochSecond), zone);
+            if (!date.isBefore(oldest)) {
+                add(date, senderHash, receiverHash);
+            }
+        });
+        log.info("活跃手机号草图初始化完成，共 {} 天", senders.size());
+    }
+
+    /**
+     * 订单创建（含导入）提交后写入草图
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        if (event.getType() != OrderChangedEvent.Type.CREATED || order.getCreatedAt() == null) {
+            return;
+        }
+        add(order.getCreatedAt().toLocalDate(),
+            HyperLogLog.hash(order.getSenderPhone()), HyperLogLog.hash(order.getReceiverPhone()));
+    }
+
+    /**
+     * 每天清理超过保留天数的草图
+     */
+    @Scheduled(cron = "0 10 0 * * *")
+    public void prune() {
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        senders.keySet().removeIf(date -> date.isBefore(oldest));
+        receivers.keySet().removeIf(date -> date.isBefore(oldest));
+    }
+
+    /**
+     * 草图保留天数，更早的日期没有数据
+     */
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    /**
+     * 估计 [from, to] 内的去重寄件人数
+     */
+    public long countSenders(LocalDate from, LocalDate to) {
+        return merge(senders, from, to).estimate();
+    }
+
+    /**
+     * 估计 [from, to] 内的去重收件人数
+     */
+    public long countReceivers(LocalDate from, LocalDate to) {
+        return merge(receivers, from, to).estimate();
+    }
+
+    private void add(LocalDate date, long senderHash, long receiverHash) {
+        if (senderHash != 0) {
+            senders.computeIfAbsent(date, d -> new HyperLogLog()).add(senderHash);
+        }
+        if (receiverHash != 0) {
+            receivers.computeIfAbsent(date, d -> new HyperLogLog()).add(receiverHash);
+        }
+    }
+
+    private static HyperLogLog merge(Map<LocalDate, HyperLogLog> sketches, LocalDate from, LocalDate to) {
+        HyperLogLog merged = new HyperLogLog();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            HyperLogLog sketch = sketches.get(date);
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+        return merged;
+    }
+}
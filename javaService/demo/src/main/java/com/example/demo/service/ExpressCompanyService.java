@@ -12,13 +12,44 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+/**
+ * 快递公司服务
+ * 启动时把全部快递公司加载为 代码 -> 快递公司 的只读快照，按代码查询直接读快照，不访问数据库；
+ * 新增、修改、删除在事务提交后复制快照修改再整体替换（copy-on-write），读取方无需加锁。
+ * 快照中的对象供只读使用，调用方不要修改。
+ */
 @Service
 public class ExpressCompanyService {
     private static final Logger log = LoggerFactory.getLogger(ExpressCompanyService.class);
+
+    // 历史订单中使用过的旧代码 -> 现行代码
+    private static final Map<String, String> CODE_ALIASES = Map.of(
+        "yt", "yto",
+        "zt", "zto",
+        "st", "sto",
+        "db", "deppon",
+        "yunda", "yd"
+    );
+    
+    // 订单允许使用、但可能未在快递公司表中登记的代码 -> 名称（早于默认数据初始化的库中没有这几家）
+    private static final Map<String, String> FALLBACK_NAMES = Map.of(
+        "ems", "邮政EMS",
+        "jitu", "极兔速递",
+        "best", "百世快递"
+    );
+    
+    private final AtomicReference<Map<String, ExpressCompany>> companies = new AtomicReference<>(Map.of());
     
     @Autowired
     private ExpressCompanyRepository expressCompanyRepository;
@@ -28,7 +59,19 @@ public class ExpressCompanyService {
         if (expressCompanyRepository.count() == 0) {
             initDefaultCompanies();
         }
-        log.info("快递公司数据加载完成，共 {} 条", expressCompanyRepository.count());
+        reload();
+        log.info("快递公司数据加载完成，共 {} 条", companies.get().size());
+    }
+    
+    /**
+     * 从数据库重新加载快照
+     */
+    public void reload() {
+        Map<String, ExpressCompany> loaded = new HashMap<>();
+        for (ExpressCompany company : expressCompanyRepository.findAll()) {
+            loaded.put(company.getCode(), company);
+        }
+        companies.set(Map.copyOf(loaded));
     }
     
     /**
@@ -43,6 +86,9 @@ public class ExpressCompanyService {
         expressCompanyRepository.save(new ExpressCompany(null, "sto", "申通快递", "STO", 5, true, "95543", "https://www.sto.cn"));
         expressCompanyRepository.save(new ExpressCompany(null, "jd", "京东物流", "JD", 6, true, "95118", "https://www.jd.com"));
         expressCompanyRepository.save(new ExpressCompany(null, "deppon", "德邦快递", "DEPPON", 7, true, "95353", "https://www.deppon.com"));
+        expressCompanyRepository.save(new ExpressCompany(null, "ems", "邮政EMS", "EMS", 8, true, "11183", "https://www.ems.com.cn"));
+        expressCompanyRepository.save(new ExpressCompany(null, "jitu", "极兔速递", "JT", 9, true, "956025", "https://www.jtexpress.com.cn"));
+        expressCompanyRepository.save(new ExpressCompany(null, "best", "百世快递", "BEST", 10, true, "95320", "https://www.800best.com"));
         log.info("初始化默认快递公司完成");
     }
     
@@ -50,7 +96,11 @@ public class ExpressCompanyService {
      * 获取所有启用的快递公司
      */
     public List<ExpressCompany> getEnabledCompanies() {
-        return expressCompanyRepository.findByEnabledTrueOrderBySortOrderAsc();
+        return companies.get().values().stream()
+            .filter(c -> Boolean.TRUE.equals(c.getEnabled()))
+            .sorted(Comparator.comparing(ExpressCompany::getSortOrder,
+                Comparator.nullsLast(Comparator.naturalOrder())))
+            .toList();
     }
     
     /**
@@ -69,7 +119,9 @@ public class ExpressCompanyService {
     public ExpressCompany create(ExpressCompany company) {
         company.setCreateTime(LocalDateTime.now());
         company.setUpdateTime(LocalDateTime.now());
-        return expressCompanyRepository.save(company);
+        ExpressCompany saved = expressCompanyRepository.save(company);
+        updateAfterCommit(map -> put(map, saved));
+        return saved;
     }
     
     /**
@@ -87,7 +139,9 @@ public class ExpressCompanyService {
         existing.setPhone(company.getPhone());
         existing.setWebsite(company.getWebsite());
         existing.setUpdateTime(LocalDateTime.now());
-        return expressCompanyRepository.save(existing);
+        ExpressCompany saved = expressCompanyRepository.save(existing);
+        updateAfterCommit(map -> put(map, saved));
+        return saved;
     }
     
     /**
@@ -95,13 +149,58 @@ public class ExpressCompanyService {
      */
     @Transactional
     public void delete(Long id) {
-        expressCompanyRepository.deleteById(id);
+        expressCompanyRepository.findById(id).ifPresent(company -> {
+            expressCompanyRepository.delete(company);
+            updateAfterCommit(map -> {
+                Map<String, ExpressCompany> copy = new HashMap<>(map);
+                copy.remove(company.getCode());
+                return Map.copyOf(copy);
+            });
+        });
     }
     
     /**
-     * 根据代码获取快递公司
+     * 根据代码获取快递公司（读快照，兼容历史旧代码）
      */
     public ExpressCompany getByCode(String code) {
-        return expressCompanyRepository.findByCode(code).orElse(null);
+        if (code == null) {
+            return null;
+        }
+        Map<String, ExpressCompany> snapshot = companies.get();
+        ExpressCompany company = snapshot.get(code);
+        return company != null ? company : snapshot.get(CODE_ALIASES.get(code));
+    }
+    
+    /**
+     * 快递公司代码转换为名称，表中没有时使用内置名称，仍未知的代码原样返回
+     */
+    public String getName(String code) {
+        ExpressCompany company = getByCode(code);
+        if (company != null) {
+            return company.getName();
+        }
+        return code != null ? FALLBACK_NAMES.getOrDefault(code, code) : null;
+    }
+    
+    private static Map<String, ExpressCompany> put(Map<String, ExpressCompany> map, ExpressCompany company) {
+        Map<String, ExpressCompany> copy = new HashMap<>(map);
+        copy.put(company.getCode(), company);
+        return Map.copyOf(copy);
+    }
+    
+    /**
+     * 事务提交后替换快照，回滚时不生效；没有事务时立即替换
+     */
+    private void updateAfterCommit(UnaryOperator<Map<String, ExpressCompany>> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            companies.updateAndGet(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                companies.updateAndGet(change);
+            }
+        });
     }
 }
@@ -0,0 +1,203 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportJobStatus;
+import com.example.demo.dto.ImportResultDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订单异步导入任务
+ * 上传文件先写入本地落盘目录并立即返回任务号，由有界线程池在后台按批次导入，
+ * 每批独立提交（见 {@link OrderService#importOrders(java.io.File, ImportProgressListener)}），
+ * 前端轮询任务状态获取进度、各批次失败数和最终导入结果。
+ * 任务状态只保存在本实例内存中，重启后丢失；排队和执行中的任务数超过上限时拒绝新任务。
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    public static final String STATUS_QUEUED = "queued";
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_FAILED = "failed";
+
+    // 任务号 -> 任务
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+
+    @Value("${app.import.job-retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Autowired
+    private OrderService orderService;
+
+    public ImportJobService(@Value("${app.import.workers:2}") int workers,
+                            @Value("${app.import.queue-capacity:10}") int queueCapacity,
+                            @Value("${app.import.spool-dir:${java.io.tmpdir}/order-imports}") String spoolDir) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "order-import-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.spoolDir = Paths.get(spoolDir);
+    }
+
+    /**
+     * 创建落盘目录并清理上次运行遗留的文件（对应的任务已随进程丢失）
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(spoolDir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*.xlsx")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交导入任务：上传文件写入落盘目录后排队执行
+     * @throws IllegalStateException 排队任务已满
+     */
+    public ImportJobStatus submit(MultipartFile file) throws IOException {
+        String jobId = UUID.randomUUID().toString().replace("-", "");
+        Path spooled = spoolDir.resolve(jobId + ".xlsx");
+        file.transferTo(spooled);
+
+        ImportJob job = new ImportJob(jobId, file.getOriginalFilename());
+        jobs.put(jobId, job);
+        try {
+            executor.execute(() -> run(job, spooled));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            Files.deleteIfExists(spooled);
+            throw new IllegalStateException("导入任务过多，请稍后再试");
+        }
+        log.info("导入任务已提交: jobId={}, 文件={}, 大小={} 字节", jobId, file.getOriginalFilename(), file.getSize());
+        return job.snapshot();
+    }
+
+    /**
+     * 查询任务状态，任务不存在或已过期返回 null
+     */
+    public ImportJobStatus getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        return job != null ? job.snapshot() : null;
+    }
+
+    /**
+     * 定时清理已结束且超过保留时间的任务
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void purgeFinishedJobs() {
+        LocalDateTime expireBefore = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinishedBefore(expireBefore));
+    }
+
+    private void run(ImportJob job, Path spooled) {
+        job.start();
+        try {
+            ImportResultDTO result = orderService.importOrders(spooled.toFile(), job::onChunkCommitted);
+            job.complete(result);
+        } catch (IOException e) {
+            log.warn("导入任务文件解析失败: jobId={}", job.jobId, e);
+            job.fail("文件格式错误，请使用模板");
+        } catch (Exception e) {
+            log.error("导入任务执行失败: jobId={}", job.jobId, e);
+            job.fail("导入失败：" + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("导入文件删除失败: {}", spooled, e);
+            }
+        }
+    }
+
+    /**
+     * 任务运行状态，由执行线程更新、请求线程读取，读写均加锁
+     */
+    private static final class ImportJob {
+        private final String jobId;
+        private final String fileName;
+        private final LocalDateTime createTime = LocalDateTime.now();
+        private final List<Integer> chunkErrors = new ArrayList<>();
+        private String status = STATUS_QUEUED;
+        private int processedRows;
+        private int successRows;
+        private String message;
+        private ImportResultDTO result;
+        private LocalDateTime finishTime;
+
+        private ImportJob(String jobId, String fileName) {
+            this.jobId = jobId;
+            this.fileName = fileName;
+        }
+
+        private synchronized void start() {
+            status = STATUS_RUNNING;
+        }
+
+        private synchronized void onChunkCommitted(int rows, int success) {
+            processedRows += rows;
+            successRows += success;
+            chunkErrors.add(rows - success);
+        }
+
+        private synchronized void complete(ImportResultDTO result) {
+            this.result = result;
+            this.status = STATUS_COMPLETED;
+            this.finishTime = LocalDateTime.now();
+        }
+
+        private synchronized void fail(String message) {
+            this.message = message;
+            this.status = STATUS_FAILED;
+            this.finishTime = LocalDateTime.now();
+        }
+
+        private synchronized boolean isFinishedBefore(LocalDateTime time) {
+            return finishTime != null && finishTime.isBefore(time);
+        }
+
+        private synchronized ImportJobStatus snapshot() {
+            return new ImportJobStatus(jobId, fileName, status, processedRows, successRows,
+                processedRows - successRows, new ArrayList<>(chunkErrors), message, result,
+                createTime, finishTime);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+/**
+ * 订单导入进度回调，每个批次提交后调用一次
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+
+    /**
+     * @param rows 本批次行数
+     * @param success 本批次成功导入行数
+     */
+    void onChunkCommitted(int rows, int success);
+}
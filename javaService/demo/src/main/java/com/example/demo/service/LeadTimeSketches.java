@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.util.LogHistogram;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 配送时长分布
+ * 按快递公司 + 签收日期维护发货到签收时长（秒）的对数分桶直方图，分位数相对误差不超过 1%；
+ * 任意日期范围的分布由范围内各天直方图相加得到，代价只与天数和桶数有关，与订单数无关。
+ * 启动时从订单列式快照初始化，之后在签收提交后写入，删除已签收订单时扣减。
+ */
+@Service
+@DependsOn("orderColumnStore")
+public class LeadTimeSketches {
+
+    private static final Logger log = LoggerFactory.getLogger(LeadTimeSketches.class);
+    private static final String UNKNOWN_COMPANY = "unknown";
+
+    // 快递公司代码 -> 签收日期 -> 直方图
+    private final Map<String, Map<LocalDate, LogHistogram>> sketches = new ConcurrentHashMap<>();
+
+    @Value("${app.statistics.lead-time-retention-days:400}")
+    private int retentionDays;
+
+    @Autowired
+    private OrderColumnStore columnStore;
+
+    @PostConstruct
+    public void init() {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        long[] count = new long[1];
+        columnStore.forEachLeadTime((expressCompany, receivedEpochSecond, leadSeconds) -> {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochSecond(receivedEpochSecond), zone);
+            if (!date.isBefore(oldest)) {
+                sketch(expressCompany, date).record(leadSeconds);
+                count[0]++;
+            }
+        });
+        log.info("配送时长直方图初始化完成，共 {} 条已签收订单", count[0]);
+    }
+
+    /**
+     * 签收提交后记录配送时长，删除已签收订单时扣减
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        if (order.getShipTime() == null || order.getReceiveTime() == null) {
+            return;
+        }
+        boolean received = event.getType() == OrderChangedEvent.Type.STATUS_CHANGED
+            && "completed".equals(order.getStatus());
+        boolean deleted = event.getType() == OrderChangedEvent.Type.DELETED;
+        if (!received && !deleted) {
+            return;
+        }
+        long leadSeconds = Math.max(0, Duration.between(order.getShipTime(), order.getReceiveTime()).getSeconds());
+        LocalDate date = order.getReceiveTime().toLocalDate();
+        if (received) {
+            sketch(order.getExpressCompany(), date).record(leadSeconds);
+            return;
+        }
+        // 超出保留范围的直方图已清理，不再扣减
+        Map<LocalDate, LogHistogram> byDate = sketches.get(companyKey(order.getExpressCompany()));
+        LogHistogram histogram = byDate != null ? byDate.get(date) : null;
+        if (histogram != null) {
+            histogram.remove(leadSeconds);
+        }
+    }
+
+    /**
+     * 每天清理超过保留天数的直方图
+     */
+    @Scheduled(cron = "0 15 0 * * *")
+    public void prune() {
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        sketches.values().forEach(byDate -> byDate.keySet().removeIf(date -> date.isBefore(oldest)));
+    }
+
+    /**
+     * 直方图保留天数，更早的签收日期没有数据
+     */
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    /**
+     * 合并 [from, to] 内各快递公司的直方图
+     * @return 快递公司代码 -> 合并后的直方图（只包含有数据的公司）
+     */
+    public Map<String, LogHistogram> mergeByCompany(LocalDate from, LocalDate to) {
+        Map<String, LogHistogram> result = new HashMap<>();
+        sketches.forEach((company, byDate) -> {
+            LogHistogram merged = new LogHistogram();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                LogHistogram histogram = byDate.get(date);
+                if (histogram != null) {
+                    merged.merge(histogram);
+                }
+            }
+            if (merged.getCount() > 0) {
+                result.put(company, merged);
+            }
+        });
+        return result;
+    }
+
+    private LogHistogram sketch(String expressCompany, LocalDate date) {
+        return sketches.computeIfAbsent(companyKey(expressCompany), c -> new ConcurrentHashMap<>())
+            .computeIfAbsent(date, d -> new LogHistogram());
+    }
+
+    private static String companyKey(String expressCompany) {
+        return expressCompany == null || expressCompany.isEmpty() ? UNKNOWN_COMPANY : expressCompany;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 订单详情缓存（按订单号的 LRU），另维护 运单号 -> 订单号 的映射
+ * 缓存和返回的都是订单副本，调用方修改返回值不会影响缓存；
+ * 订单修改、删除时失效，事务提交后再失效一次，避免提交前被并发读取重新加载旧值。
+ * 其他节点的修改收不到事件，条目写入后超过 cache-ttl-ms 即过期重新加载，读到的旧值最多滞后这么久；
+ * 读取-修改-保存的写操作不经缓存，见 {@link OrderService#getOrderForUpdate(String)}。
+ */
+@Service
+public class OrderCache {
+
+    private final Map<String, Entry> orders;
+    private final Map<String, String> orderNoByTrackingNo = new HashMap<>();
+
+    // 每次失效递增，加载期间发生过失效则不写入缓存
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final long ttlMillis;
+
+    public OrderCache(@Value("${app.orders.cache-size:10000}") int maxSize,
+                      @Value("${app.orders.cache-ttl-ms:30000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.orders = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                removeTrackingNo(eldest.getValue().order);
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 按订单号读取，未命中时由 loader 从数据库加载
+     * @return 订单副本，不存在时返回 null
+     */
+    public Order get(String orderNo, Function<String, Order> loader) {
+        synchronized (this) {
+            Order cached = live(orderNo);
+            if (cached != null) {
+                hits.increment();
+                return cached.copy();
+            }
+        }
+        misses.increment();
+        return load(orderNo, loader);
+    }
+
+    /**
+     * 按运单号读取，未命中时由 loader 从数据库加载
+     * @return 订单副本，不存在时返回 null
+     */
+    public Order getByTrackingNo(String trackingNo, Function<String, Order> loader) {
+        synchronized (this) {
+            String orderNo = orderNoByTrackingNo.get(trackingNo);
+            Order cached = orderNo != null ? live(orderNo) : null;
+            if (cached != null && trackingNo.equals(cached.getTrackingNo())) {
+                hits.increment();
+                return cached.copy();
+            }
+        }
+        misses.increment();
+        return load(trackingNo, loader);
+    }
+
+    /**
+     * 使订单失效
+     */
+    public void invalidate(String orderNo) {
+        if (orderNo == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        synchronized (this) {
+            Entry removed = orders.remove(orderNo);
+            if (removed != null) {
+                removeTrackingNo(removed.order);
+            }
+        }
+    }
+
+    /**
+     * 订单变更提交后失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidate(event.getOrder().getOrderNo());
+    }
+
+    /**
+     * 命中率等指标
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        int size;
+        synchronized (this) {
+            size = orders.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? Math.round(hitCount * 10000.0 / total) / 100.0 : 0.0);
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private Order load(String key, Function<String, Order> loader) {
+        long version = invalidations.get();
+        Order loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        Order cached = loaded.copy();
+        synchronized (this) {
+            if (invalidations.get() == version) {
+                Entry replaced = orders.put(cached.getOrderNo(),
+                    new Entry(cached, System.currentTimeMillis() + ttlMillis));
+                if (replaced != null) {
+                    removeTrackingNo(replaced.order);
+                }
+                if (cached.getTrackingNo() != null) {
+                    orderNoByTrackingNo.put(cached.getTrackingNo(), cached.getOrderNo());
+                }
+            }
+        }
+        return cached.copy();
+    }
+
+    /**
+     * 未过期的缓存订单，过期的条目顺带移除（调用方持有 this 锁）
+     */
+    private Order live(String orderNo) {
+        Entry entry = orders.get(orderNo);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            orders.remove(orderNo);
+            removeTrackingNo(entry.order);
+            return null;
+        }
+        return entry.order;
+    }
+
+    private void removeTrackingNo(Order order) {
+        if (order.getTrackingNo() != null) {
+            orderNoByTrackingNo.remove(order.getTrackingNo(), order.getOrderNo());
+        }
+    }
+
+    private static final class Entry {
+        private final Order order;
+        private final long expiresAt;
+
+        private Entry(Order order, long expiresAt) {
+            this.order = order;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
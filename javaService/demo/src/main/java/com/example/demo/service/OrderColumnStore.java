@@ -0,0 +1,759 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.util.AddressUtil;
+import com.example.demo.util.HyperLogLog;
+import com.example.demo.util.StringDictionary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 订单列式快照
+ * 只保存分析需要的列：状态、快递公司、货物类型、省/市/区县用字典编码存入基本类型数组，
+ * 创建、签收时间存为分钟级时间戳，重量、体积存为 double，寄件人、收件人手机号只存 64 位哈希，
+ * 发货到签收的时长存为秒，每行约 78 字节，不持有 Order 实体。
+ * 行按 id 升序排列；首次启动全量加载，之后按 updated_at 水位定时增量刷新，
+ * 订单事件提交后立即更新对应行，删除的订单保留为墓碑行，不会被过期的刷新结果复活。
+ * 快照连同水位定期保存到文件，重启时映射文件并只追平水位之后的变更。
+ */
+@Service
+@DependsOn("dataMigrationService")
+public class OrderColumnStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderColumnStore.class);
+    private static final int BATCH_SIZE = 10000;
+    private static final byte DELETED = Byte.MIN_VALUE;  // 墓碑行的状态编码
+    private static final long NO_TIME = Long.MIN_VALUE;  // 创建时间为空
+    private static final int NO_MATCH = -2;              // 查询值不在字典中
+    private static final int FILE_MAGIC = 0x4F435331;    // "OCS1"
+    // 2: 增加手机号哈希列；3: 增加签收时间、配送时长列；4: 城市列改为省/市/区县
+    private static final int FILE_VERSION = 4;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${app.statistics.rollup-lag-seconds:10}")
+    private long lagSeconds;
+
+    @Value("${app.statistics.column-store-file:data/order-column-store.bin}")
+    private String snapshotFile;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private StringDictionary statusDict = new StringDictionary();
+    private StringDictionary expressCompanyDict = new StringDictionary();
+    private StringDictionary cargoTypeDict = new StringDictionary();
+    private StringDictionary regionDict = new StringDictionary();  // 发货、收货地共用，值为 "省/市/区县"
+
+    private int size;       // 行数（含墓碑行）
+    private int liveCount;  // 有效行数
+    // 有效行按字典编码的计数（下标为编码），随写入同步维护
+    private long[] statusCounts = new long[0];
+    private long[] expressCompanyCounts = new long[0];
+    private long[] cargoTypeCounts = new long[0];
+    private long[] ids = new long[0];
+    private byte[] statuses = new byte[0];
+    private int[] expressCompanies = new int[0];
+    private int[] cargoTypes = new int[0];
+    private int[] originRegions = new int[0];
+    private int[] destinationRegions = new int[0];
+    private long[] createdMinutes = new long[0];  // 创建时间（epoch 分钟）
+    private double[] weights = new double[0];
+    private double[] volumes = new double[0];
+    private long[] senderPhoneHashes = new long[0];    // 寄件人手机号哈希，空为 0
+    private long[] receiverPhoneHashes = new long[0];  // 收件人手机号哈希，空为 0
+    private long[] receiveMinutes = new long[0];       // 签收时间（epoch 分钟）
+    private int[] leadSeconds = new int[0];            // 发货到签收的时长（秒），未签收为 -1
+
+    // 增量刷新水位：(updated_at, id)
+    private LocalDateTime watermark;
+    private long watermarkId;
+
+    @PostConstruct
+    public void init() {
+        // 启动时没有进行中的写事务，可以直接追平到当前时间
+        LocalDateTime now = LocalDateTime.now();
+        if (loadFile()) {
+            int rows = refresh(now);
+            int deleted = liveCount != orderRepository.count() ? reconcileDeleted() : 0;
+            log.info("订单列式快照从文件恢复，追平 {} 行，核对删除 {} 行，共 {} 条订单", rows, deleted, liveCount);
+            return;
+        }
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = orderRepository.findColumnsAfterId(afterId, PageRequest.of(0, BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    upsert(row);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!rows.isEmpty()) {
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == BATCH_SIZE);
+        watermark = now;
+        watermarkId = 0;
+        log.info("订单列式快照加载完成，共 {} 条订单", liveCount);
+    }
+
+    /**
+     * 停机时保存快照文件
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            save();
+        } catch (IOException e) {
+            log.error("订单列式快照保存失败", e);
+        }
+    }
+
+    /**
+     * 定时增量刷新
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.column-store-refresh-ms:5000}",
+               initialDelayString = "${app.statistics.column-store-refresh-ms:5000}")
+    public void scheduledRefresh() {
+        try {
+            int rows = refresh(LocalDateTime.now().minusSeconds(lagSeconds));
+            if (rows > 0) {
+                log.debug("订单列式快照刷新 {} 行", rows);
+            }
+        } catch (Exception e) {
+            log.error("订单列式快照刷新失败", e);
+        }
+    }
+
+    /**
+     * 读取水位之后、upper 之前被修改过的订单并写入快照
+     * @return 刷新的行数
+     */
+    public synchronized int refresh(LocalDateTime upper) {
+        if (!upper.isAfter(watermark)) {
+            return 0;
+        }
+        int total = 0;
+        List<Object[]> rows;
+        do {
+            rows = orderRepository.findColumnsUpdatedBetween(watermark, watermarkId, upper,
+                PageRequest.of(0, BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    upsert(row);
+                    watermark = (LocalDateTime) row[13];
+                    watermarkId = (Long) row[0];
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            total += rows.size();
+        } while (rows.size() == BATCH_SIZE);
+        // 本轮窗口已读完，下一轮从 upper 开始
+        watermark = upper;
+        watermarkId = Long.MAX_VALUE;
+        return total;
+    }
+
+    /**
+     * 定时保存快照文件，异常退出时重启只需追平保存之后的变更
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.column-store-save-ms:600000}",
+               initialDelayString = "${app.statistics.column-store-save-ms:600000}")
+    public void scheduledSave() {
+        try {
+            save();
+        } catch (IOException e) {
+            log.error("订单列式快照保存失败", e);
+        }
+    }
+
+    /**
+     * 订单变更提交后立即更新快照，定时刷新作为兜底
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        if (order.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == OrderChangedEvent.Type.DELETED) {
+                markDeleted(order.getId());
+            } else {
+                upsert(new Object[] {
+                    order.getId(), order.getStatus(), order.getExpressCompany(), order.getCargoType(),
+                    order.getOrigin(), order.getDestination(), order.getCreatedAt(),
+                    order.getCargoWeight(), order.getCargoVolume(),
+                    order.getSenderPhone(), order.getReceiverPhone(),
+                    order.getShipTime(), order.getReceiveTime()
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 按货物类型汇总订单数、总重量、总体积
+     * @param from 创建时间下限（含），为空不限
+     * @param to 创建时间上限（不含），为空不限
+     * @return 货物类型 -> 汇总，按订单数降序
+     */
+    public Map<String, CargoTotals> sumByCargoType(LocalDateTime from, LocalDateTime to) {
+        long fromMinute = from != null ? toEpochMinute(from) : NO_TIME;
+        long toMinute = to != null ? toEpochMinute(to) : Long.MAX_VALUE;
+        lock.readLock().lock();
+        try {
+            // 下标 0 为未填写货物类型，其余为字典编码 + 1
+            int groups = cargoTypeDict.size() + 1;
+            long[] counts = new long[groups];
+            double[] weightSums = new double[groups];
+            double[] volumeSums = new double[groups];
+            for (int i = 0; i < size; i++) {
+                long minute = createdMinutes[i];
+                if (statuses[i] == DELETED || minute < fromMinute || minute >= toMinute
+                        || (minute == NO_TIME && from != null)) {
+                    continue;
+                }
+                int group = cargoTypes[i] + 1;
+                counts[group]++;
+                weightSums[group] += weights[i];
+                volumeSums[group] += volumes[i];
+            }
+
+            List<Integer> order = new ArrayList<>();
+            for (int g = 0; g < groups; g++) {
+                if (counts[g] > 0) {
+                    order.add(g);
+                }
+            }
+            order.sort((a, b) -> Long.compare(counts[b], counts[a]));
+            Map<String, CargoTotals> result = new LinkedHashMap<>();
+            for (int g : order) {
+                String cargoType = g == 0 ? "未分类" : cargoTypeDict.decode(g - 1);
+                result.put(cargoType, new CargoTotals(counts[g], weightSums[g], volumeSums[g]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 遍历有创建时间的有效行的手机号哈希（持有读锁，visitor 内不要做耗时操作）
+     */
+    public void forEachPhoneHash(PhoneHashVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (statuses[i] != DELETED && createdMinutes[i] != NO_TIME) {
+                    visitor.visit(createdMinutes[i] * 60, senderPhoneHashes[i], receiverPhoneHashes[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    public interface PhoneHashVisitor {
+        void visit(long createdEpochSecond, long senderPhoneHash, long receiverPhoneHash);
+    }
+
+    /**
+     * 遍历已签收有效行的快递公司、签收时间和配送时长（持有读锁，visitor 内不要做耗时操作）
+     */
+    public void forEachLeadTime(LeadTimeVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (statuses[i] != DELETED && leadSeconds[i] >= 0 && receiveMinutes[i] != NO_TIME) {
+                    visitor.visit(expressCompanyDict.decode(expressCompanies[i]), receiveMinutes[i] * 60, leadSeconds[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    public interface LeadTimeVisitor {
+        void visit(String expressCompany, long receivedEpochSecond, long leadSeconds);
+    }
+
+    /**
+     * 遍历有效行的状态、快递公司和发货地、收货地（"省/市/区县"，地址为空时为 null）
+     * 持有读锁，visitor 内不要做耗时操作
+     */
+    public void forEachRegion(RegionVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (statuses[i] != DELETED) {
+                    visitor.visit(statusDict.decode(statuses[i]), expressCompanyDict.decode(expressCompanies[i]),
+                        regionDict.decode(originRegions[i]), regionDict.decode(destinationRegions[i]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    public interface RegionVisitor {
+        void visit(String status, String expressCompany, String originRegion, String destinationRegion);
+    }
+
+    /**
+     * 按等值条件统计有效订单数（条件为空表示不过滤）
+     * 只有状态、快递公司、货物类型之一时直接读取维护的计数，其余组合扫描对应的列（O(N)，调用方需缓存结果）
+     */
+    public long countMatching(String status, String expressCompany, String cargoType,
+                              String senderPhone, String receiverPhone) {
+        lock.readLock().lock();
+        try {
+            int statusCode = codeOf(statusDict, status);
+            int companyCode = codeOf(expressCompanyDict, expressCompany);
+            int cargoTypeCode = codeOf(cargoTypeDict, cargoType);
+            if (statusCode == NO_MATCH || companyCode == NO_MATCH || cargoTypeCode == NO_MATCH) {
+                return 0;
+            }
+            long senderHash = HyperLogLog.hash(senderPhone);
+            long receiverHash = HyperLogLog.hash(receiverPhone);
+
+            int fields = (statusCode >= 0 ? 1 : 0) + (companyCode >= 0 ? 1 : 0) + (cargoTypeCode >= 0 ? 1 : 0);
+            if (senderHash == 0 && receiverHash == 0 && fields <= 1) {
+                if (statusCode >= 0) return statusCode < statusCounts.length ? statusCounts[statusCode] : 0;
+                if (companyCode >= 0) return companyCode < expressCompanyCounts.length ? expressCompanyCounts[companyCode] : 0;
+                if (cargoTypeCode >= 0) return cargoTypeCode < cargoTypeCounts.length ? cargoTypeCounts[cargoTypeCode] : 0;
+                return liveCount;
+            }
+
+            long count = 0;
+            for (int i = 0; i < size; i++) {
+                if (statuses[i] != DELETED
+                        && (statusCode < 0 || statuses[i] == statusCode)
+                        && (companyCode < 0 || expressCompanies[i] == companyCode)
+                        && (cargoTypeCode < 0 || cargoTypes[i] == cargoTypeCode)
+                        && (senderHash == 0 || senderPhoneHashes[i] == senderHash)
+                        && (receiverHash == 0 || receiverPhoneHashes[i] == receiverHash)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 条件值对应的字典编码：为空返回 NULL_CODE（不过滤），字典中不存在返回 NO_MATCH
+     */
+    private static int codeOf(StringDictionary dict, String value) {
+        if (value == null || value.isEmpty()) {
+            return StringDictionary.NULL_CODE;
+        }
+        int code = dict.lookup(value);
+        return code == StringDictionary.NULL_CODE ? NO_MATCH : code;
+    }
+
+    /**
+     * 有效订单数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 货物类型汇总
+     */
+    public static class CargoTotals {
+        private final long count;
+        private final double weight;
+        private final double volume;
+
+        CargoTotals(long count, double weight, double volume) {
+            this.count = count;
+            this.weight = weight;
+            this.volume = volume;
+        }
+
+        public long getCount() { return count; }
+        public double getWeight() { return weight; }
+        public double getVolume() { return volume; }
+    }
+
+    // ==================== 快照文件 ====================
+
+    /**
+     * 保存快照文件
+     * 先写临时文件再原子替换，保存过程中进程退出不会留下半个文件。
+     * 文件格式（大端）：
+     *   头部：magic、格式版本、水位时间（秒 + 纳秒）、水位 id、最大订单 id、行数、有效行数
+     *   字典：状态、快递公司、货物类型、行政区，各为 数量 + (长度 + UTF-8 字节)*
+     *   列：id、状态、快递公司、货物类型、发货地、收货地、创建分钟、重量、体积、寄件人哈希、收件人哈希、
+     *       签收分钟、配送时长，各 行数 个元素
+     */
+    public synchronized void save() throws IOException {
+        if (watermark == null) {
+            return;
+        }
+        Path file = Paths.get(snapshotFile);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(watermark.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(watermark.getNano());
+            out.writeLong(watermarkId);
+            out.writeLong(size > 0 ? ids[size - 1] : 0L);
+            out.writeInt(size);
+            out.writeInt(liveCount);
+            for (StringDictionary dict : List.of(statusDict, expressCompanyDict, cargoTypeDict, regionDict)) {
+                out.writeInt(dict.size());
+                for (int code = 0; code < dict.size(); code++) {
+                    byte[] bytes = dict.decode(code).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            for (int i = 0; i < size; i++) out.writeLong(ids[i]);
+            out.write(statuses, 0, size);
+            for (int i = 0; i < size; i++) out.writeInt(expressCompanies[i]);
+            for (int i = 0; i < size; i++) out.writeInt(cargoTypes[i]);
+            for (int i = 0; i < size; i++) out.writeInt(originRegions[i]);
+            for (int i = 0; i < size; i++) out.writeInt(destinationRegions[i]);
+            for (int i = 0; i < size; i++) out.writeLong(createdMinutes[i]);
+            for (int i = 0; i < size; i++) out.writeDouble(weights[i]);
+            for (int i = 0; i < size; i++) out.writeDouble(volumes[i]);
+            for (int i = 0; i < size; i++) out.writeLong(senderPhoneHashes[i]);
+            for (int i = 0; i < size; i++) out.writeLong(receiverPhoneHashes[i]);
+            for (int i = 0; i < size; i++) out.writeLong(receiveMinutes[i]);
+            for (int i = 0; i < size; i++) out.writeInt(leadSeconds[i]);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("订单列式快照已保存，共 {} 行", size);
+    }
+
+    /**
+     * 映射并读取快照文件，文件不存在、版本不符或内容损坏时返回 false（改为全量加载）
+     */
+    private boolean loadFile() {
+        Path file = Paths.get(snapshotFile);
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION) {
+                log.warn("订单列式快照文件格式不符，改为全量加载: {}", file);
+                return false;
+            }
+            LocalDateTime fileWatermark = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            long fileWatermarkId = buffer.getLong();
+            long lastOrderId = buffer.getLong();
+            int rows = buffer.getInt();
+            int live = buffer.getInt();
+            StringDictionary[] dicts = new StringDictionary[4];
+            for (int d = 0; d < dicts.length; d++) {
+                dicts[d] = new StringDictionary();
+                int count = buffer.getInt();
+                for (int code = 0; code < count; code++) {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    dicts[d].encode(new String(bytes, StandardCharsets.UTF_8));
+                }
+            }
+            long[] fileIds = new long[rows];
+            byte[] fileStatuses = new byte[rows];
+            int[] fileExpressCompanies = new int[rows];
+            int[] fileCargoTypes = new int[rows];
+            int[] fileOriginRegions = new int[rows];
+            int[] fileDestinationRegions = new int[rows];
+            long[] fileCreatedMinutes = new long[rows];
+            double[] fileWeights = new double[rows];
+            double[] fileVolumes = new double[rows];
+            long[] fileSenderPhoneHashes = new long[rows];
+            long[] fileReceiverPhoneHashes = new long[rows];
+            long[] fileReceiveMinutes = new long[rows];
+            int[] fileLeadSeconds = new int[rows];
+            buffer.asLongBuffer().get(fileIds);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.get(fileStatuses);
+            for (int[] column : List.of(fileExpressCompanies, fileCargoTypes, fileOriginRegions, fileDestinationRegions)) {
+                buffer.asIntBuffer().get(column);
+                buffer.position(buffer.position() + rows * Integer.BYTES);
+            }
+            buffer.asLongBuffer().get(fileCreatedMinutes);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asDoubleBuffer().get(fileWeights);
+            buffer.position(buffer.position() + rows * Double.BYTES);
+            buffer.asDoubleBuffer().get(fileVolumes);
+            buffer.position(buffer.position() + rows * Double.BYTES);
+            buffer.asLongBuffer().get(fileSenderPhoneHashes);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asLongBuffer().get(fileReceiverPhoneHashes);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asLongBuffer().get(fileReceiveMinutes);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asIntBuffer().get(fileLeadSeconds);
+
+            lock.writeLock().lock();
+            try {
+                statusDict = dicts[0];
+                expressCompanyDict = dicts[1];
+                cargoTypeDict = dicts[2];
+                regionDict = dicts[3];
+                size = rows;
+                liveCount = live;
+                ids = fileIds;
+                statuses = fileStatuses;
+                expressCompanies = fileExpressCompanies;
+                cargoTypes = fileCargoTypes;
+                originRegions = fileOriginRegions;
+                destinationRegions = fileDestinationRegions;
+                createdMinutes = fileCreatedMinutes;
+                weights = fileWeights;
+                volumes = fileVolumes;
+                senderPhoneHashes = fileSenderPhoneHashes;
+                receiverPhoneHashes = fileReceiverPhoneHashes;
+                receiveMinutes = fileReceiveMinutes;
+                leadSeconds = fileLeadSeconds;
+                watermark = fileWatermark;
+                watermarkId = fileWatermarkId;
+                statusCounts = new long[0];
+                expressCompanyCounts = new long[0];
+                cargoTypeCounts = new long[0];
+                for (int i = 0; i < rows; i++) {
+                    if (statuses[i] != DELETED) {
+                        countCodes(i, 1);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("订单列式快照文件已映射: {} 行，最大订单 id {}，水位 {}", rows, lastOrderId, fileWatermark);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("订单列式快照文件读取失败，改为全量加载: {}", file, e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除不会留下 updated_at，停机期间或上次保存之后删除的订单无法通过水位追平；
+     * 按 id 顺序读取主键并与快照对照，快照中存在而表中不存在的行标记为墓碑
+     * @return 标记删除的行数
+     */
+    private int reconcileDeleted() {
+        int deleted = 0;
+        int index = 0;
+        long afterId = 0;
+        List<Long> batch;
+        do {
+            batch = orderRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            // 本批之后仍有数据时，只核对到本批最大 id 为止
+            long upperId = batch.size() == BATCH_SIZE ? batch.get(batch.size() - 1) : Long.MAX_VALUE;
+            lock.writeLock().lock();
+            try {
+                int cursor = 0;
+                while (index < size && ids[index] <= upperId) {
+                    long id = ids[index];
+                    while (cursor < batch.size() && batch.get(cursor) < id) {
+                        cursor++;
+                    }
+                    boolean exists = cursor < batch.size() && batch.get(cursor) == id;
+                    if (!exists && statuses[index] != DELETED) {
+                        countCodes(index, -1);
+                        statuses[index] = DELETED;
+                        liveCount--;
+                        deleted++;
+                    }
+                    index++;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return deleted;
+    }
+
+    // ==================== 写入（调用方持有写锁） ====================
+
+    /**
+     * 写入一行，列顺序：id, status, expressCompany, cargoType, origin, destination, createdAt, weight, volume,
+     * senderPhone, receiverPhone, shipTime, receiveTime
+     */
+    private void upsert(Object[] row) {
+        long id = (Long) row[0];
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            if (statuses[index] == DELETED) {
+                return;  // 已删除的订单不再更新
+            }
+            countCodes(index, -1);
+        } else {
+            index = insertAt(-index - 1, id);
+            liveCount++;
+        }
+        statuses[index] = (byte) statusDict.encode((String) row[1]);
+        expressCompanies[index] = expressCompanyDict.encode((String) row[2]);
+        cargoTypes[index] = cargoTypeDict.encode((String) row[3]);
+        originRegions[index] = encodeRegion((String) row[4]);
+        destinationRegions[index] = encodeRegion((String) row[5]);
+        LocalDateTime createdAt = (LocalDateTime) row[6];
+        createdMinutes[index] = createdAt != null ? toEpochMinute(createdAt) : NO_TIME;
+        weights[index] = row[7] != null ? (Double) row[7] : 0.0;
+        volumes[index] = row[8] != null ? (Double) row[8] : 0.0;
+        senderPhoneHashes[index] = HyperLogLog.hash((String) row[9]);
+        receiverPhoneHashes[index] = HyperLogLog.hash((String) row[10]);
+        LocalDateTime shipTime = (LocalDateTime) row[11];
+        LocalDateTime receiveTime = (LocalDateTime) row[12];
+        receiveMinutes[index] = receiveTime != null ? toEpochMinute(receiveTime) : NO_TIME;
+        leadSeconds[index] = shipTime != null && receiveTime != null
+            ? (int) Math.max(0, Duration.between(shipTime, receiveTime).getSeconds())
+            : -1;
+        countCodes(index, 1);
+    }
+
+    /**
+     * 按行的状态、快递公司、货物类型编码调整计数
+     */
+    private void countCodes(int index, long delta) {
+        statusCounts = addCount(statusCounts, statuses[index], delta);
+        expressCompanyCounts = addCount(expressCompanyCounts, expressCompanies[index], delta);
+        cargoTypeCounts = addCount(cargoTypeCounts, cargoTypes[index], delta);
+    }
+
+    private static long[] addCount(long[] counts, int code, long delta) {
+        if (code < 0) {
+            return counts;
+        }
+        if (code >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(code + 1, counts.length * 2));
+        }
+        counts[code] += delta;
+        return counts;
+    }
+
+    private void markDeleted(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            // 尚未加载就被删除，插入墓碑行阻止之后的刷新写入
+            index = insertAt(-index - 1, id);
+        } else if (statuses[index] != DELETED) {
+            countCodes(index, -1);
+            liveCount--;
+        } else {
+            return;
+        }
+        statuses[index] = DELETED;
+    }
+
+    /**
+     * 在 position 处插入一行并返回其下标；id 自增，绝大多数插入发生在末尾
+     */
+    private int insertAt(int position, long id) {
+        if (size == ids.length) {
+            int capacity = Math.max(1024, size + (size >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            expressCompanies = Arrays.copyOf(expressCompanies, capacity);
+            cargoTypes = Arrays.copyOf(cargoTypes, capacity);
+            originRegions = Arrays.copyOf(originRegions, capacity);
+            destinationRegions = Arrays.copyOf(destinationRegions, capacity);
+            createdMinutes = Arrays.copyOf(createdMinutes, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            senderPhoneHashes = Arrays.copyOf(senderPhoneHashes, capacity);
+            receiverPhoneHashes = Arrays.copyOf(receiverPhoneHashes, capacity);
+            receiveMinutes = Arrays.copyOf(receiveMinutes, capacity);
+            leadSeconds = Arrays.copyOf(leadSeconds, capacity);
+        }
+        if (position < size) {
+            int moved = size - position;
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(statuses, position, statuses, position + 1, moved);
+            System.arraycopy(expressCompanies, position, expressCompanies, position + 1, moved);
+            System.arraycopy(cargoTypes, position, cargoTypes, position + 1, moved);
+            System.arraycopy(originRegions, position, originRegions, position + 1, moved);
+            System.arraycopy(destinationRegions, position, destinationRegions, position + 1, moved);
+            System.arraycopy(createdMinutes, position, createdMinutes, position + 1, moved);
+            System.arraycopy(weights, position, weights, position + 1, moved);
+            System.arraycopy(volumes, position, volumes, position + 1, moved);
+            System.arraycopy(senderPhoneHashes, position, senderPhoneHashes, position + 1, moved);
+            System.arraycopy(receiverPhoneHashes, position, receiverPhoneHashes, position + 1, moved);
+            System.arraycopy(receiveMinutes, position, receiveMinutes, position + 1, moved);
+            System.arraycopy(leadSeconds, position, leadSeconds, position + 1, moved);
+        }
+        ids[position] = id;
+        size++;
+        return position;
+    }
+
+    private int encodeRegion(String address) {
+        return address == null || address.isEmpty()
+            ? StringDictionary.NULL_CODE
+            : regionDict.encode(String.join("/", AddressUtil.parseRegion(address)));
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+}
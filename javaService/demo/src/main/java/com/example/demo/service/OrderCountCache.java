@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单列表总数
+ * 常见条件直接读取随写入维护的计数：单个状态 / 快递公司 / 货物类型读订单列式快照的计数，
+ * 寄件人或收件人手机号（可再加状态）读 PhoneOrderStatsCache 的各状态计数。
+ * 其余等值条件组合扫描列式快照，含子串条件的组合执行 COUNT，两者结果都缓存一小段时间，翻页期间不再重复计数。
+ */
+@Service
+public class OrderCountCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<String, CachedCount> cache = new ConcurrentHashMap<>();
+
+    @Value("${app.orders.count-cache-ttl-ms:5000}")
+    private long ttlMillis;
+
+    @Autowired
+    private OrderColumnStore columnStore;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PhoneOrderStatsCache phoneStatsCache;
+
+    /**
+     * 统计符合条件的订单数，spec 为与各条件对应的查询条件（仅在需要访问数据库时使用）
+     */
+    public long count(String orderNo, String trackingNo, String status, String cargoType, String cargoName,
+                      String expressCompany, String senderName, String receiverName, String receiverPhone,
+                      String senderPhone, Specification<Order> spec) {
+        boolean equalityOnly = isBlank(orderNo) && isBlank(trackingNo) && isBlank(cargoName)
+            && isBlank(senderName) && isBlank(receiverName);
+        if (equalityOnly && isBlank(expressCompany) && isBlank(cargoType)) {
+            if (!isBlank(senderPhone) && isBlank(receiverPhone)) {
+                return countByPhone(senderPhone, "sender", status);
+            }
+            if (isBlank(senderPhone) && !isBlank(receiverPhone)) {
+                return countByPhone(receiverPhone, "receiver", status);
+            }
+        }
+        if (equalityOnly && isBlank(senderPhone) && isBlank(receiverPhone)
+                && (isBlank(status) ? 0 : 1) + (isBlank(expressCompany) ? 0 : 1) + (isBlank(cargoType) ? 0 : 1) <= 1) {
+            return columnStore.countMatching(status, expressCompany, cargoType, null, null);
+        }
+
+        String key = String.join("\u0001", nvl(orderNo), nvl(trackingNo), nvl(status), nvl(cargoType),
+            nvl(cargoName), nvl(expressCompany), nvl(senderName), nvl(receiverName),
+            nvl(receiverPhone), nvl(senderPhone));
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.count;
+        }
+        LongSupplier counter = equalityOnly
+            ? () -> columnStore.countMatching(status, expressCompany, cargoType, senderPhone, receiverPhone)
+            : () -> orderRepository.count(spec);
+        long count = counter.getAsLong();
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.values().removeIf(c -> c.expiresAt <= now);
+            if (cache.size() >= MAX_ENTRIES) {
+                cache.clear();
+            }
+        }
+        cache.put(key, new CachedCount(count, now + ttlMillis));
+        return count;
+    }
+
+    private long countByPhone(String phone, String type, String status) {
+        Map<String, Long> counts = phoneStatsCache.countByStatus(phone, type);
+        if (isBlank(status)) {
+            return counts.values().stream().mapToLong(Long::longValue).sum();
+        }
+        return counts.getOrDefault(status, 0L);
+    }
+
+    private static String nvl(String str) {
+        return str != null ? str : "";
+    }
+
+    private static boolean isBlank(String str) {
+        return str == null || str.isEmpty();
+    }
+
+    private static final class CachedCount {
+        private final long count;
+        private final long expiresAt;
+
+        private CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderDailyStat;
+import com.example.demo.entity.StatCheckpoint;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.repository.OrderDailyStatRepository;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.StatCheckpointRepository;
+import com.example.demo.util.AddressUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 订单日汇总任务
+ * 按 orders.updated_at 水位增量追平 order_daily_stats：每次只重算水位之后有订单变动的日期，
+ * 删除的订单不会留下 updated_at，因此在删除提交后单独重算其所在日期（同一事务内删除的多个订单每个日期只重算一次）
+ */
+@Service
+@DependsOn("dataMigrationService")
+public class OrderDailyStatsAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderDailyStatsAggregator.class);
+    private static final String CHECKPOINT_NAME = "order_daily_stats";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderDailyStatRepository dailyStatRepository;
+
+    @Autowired
+    private StatCheckpointRepository checkpointRepository;
+
+    // 水位滞后时间：给仍在进行中的写事务留出提交时间，避免漏掉 updated_at 早于提交时刻的行
+    @Value("${app.statistics.rollup-lag-seconds:10}")
+    private long lagSeconds;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // 当前事务中待重算日期集合的绑定键
+    private final Object deletedDatesKey = new Object();
+
+    public OrderDailyStatsAggregator(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        // 启动时没有进行中的写事务，可以直接追平到当前时间
+        int days = catchUp(LocalDateTime.now());
+        log.info("订单日汇总初始化完成，重算 {} 天", days);
+    }
+
+    /**
+     * 定时追平汇总表
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.rollup-interval-ms:30000}",
+               initialDelayString = "${app.statistics.rollup-interval-ms:30000}")
+    public void scheduledCatchUp() {
+        try {
+            int days = catchUp(LocalDateTime.now().minusSeconds(lagSeconds));
+            if (days > 0) {
+                log.debug("订单日汇总追平完成，重算 {} 天", days);
+            }
+        } catch (Exception e) {
+            log.error("订单日汇总失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将汇总表追平到 upper（含）为止的订单变动
+     * @return 重算的天数
+     */
+    public int catchUp(LocalDateTime upper) {
+        Integer days = transactionTemplate.execute(status -> {
+            StatCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT_NAME)
+                .orElseGet(() -> checkpointRepository.saveAndFlush(new StatCheckpoint(CHECKPOINT_NAME)));
+            LocalDateTime watermark = checkpoint.getWatermark();
+            if (watermark != null && !upper.isAfter(watermark)) {
+                return 0;
+            }
+
+            // 首次运行没有水位，全量构建一次
+            List<String> dates = watermark == null
+                ? orderRepository.findAllCreateDates()
+                : orderRepository.findCreateDatesUpdatedBetween(watermark, upper);
+            for (String date : dates) {
+                rebuildDay(LocalDate.parse(date));
+            }
+
+            checkpoint.setWatermark(upper);
+            checkpoint.setUpdateTime(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            return dates.size();
+        });
+        return days != null ? days : 0;
+    }
+
+    /**
+     * 订单删除时记下其所在日期，事务提交后每个日期重算一次；回滚时不重算，没有事务时立即重算
+     */
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        if (event.getType() != OrderChangedEvent.Type.DELETED || order.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate date = order.getCreatedAt().toLocalDate();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildDeletedDays(Set.of(date));
+            return;
+        }
+        Set<LocalDate> dates = (Set<LocalDate>) TransactionSynchronizationManager.getResource(deletedDatesKey);
+        if (dates == null) {
+            Set<LocalDate> pending = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(deletedDatesKey, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuildDeletedDays(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(deletedDatesKey);
+                }
+            });
+            dates = pending;
+        }
+        dates.add(date);
+    }
+
+    /**
+     * 在一个独立事务中重算删除订单所在的日期，失败只记录日志，不影响已提交的删除
+     */
+    private void rebuildDeletedDays(Set<LocalDate> dates) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // 与汇总任务串行；汇总表尚未初始化时无需处理
+                checkpointRepository.findForUpdate(CHECKPOINT_NAME)
+                    .filter(checkpoint -> checkpoint.getWatermark() != null)
+                    .ifPresent(checkpoint -> dates.forEach(this::rebuildDay));
+            });
+        } catch (Exception e) {
+            log.error("删除订单后重算日汇总失败: 日期={}, 原因={}", dates, e.getMessage());
+        }
+    }
+
+    /**
+     * 重算某一天的汇总行
+     */
+    private void rebuildDay(LocalDate date) {
+        dailyStatRepository.deleteByStatDate(date);
+
+        // 同一城市的不同地址合并为一行
+        Map<List<String>, Long> merged = new HashMap<>();
+        for (Object[] row : orderRepository.countGroupByDimensions(
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            List<String> key = List.of(
+                nullToEmpty((String) row[0]),
+                nullToEmpty((String) row[1]),
+                cityKey((String) row[2]),
+                cityKey((String) row[3]));
+            merged.merge(key, (Long) row[4], Long::sum);
+        }
+
+        List<OrderDailyStat> stats = new ArrayList<>(merged.size());
+        merged.forEach((key, count) ->
+            stats.add(new OrderDailyStat(date, key.get(0), key.get(1), key.get(2), key.get(3), count)));
+        dailyStatRepository.saveAll(stats);
+    }
+
+    private static String cityKey(String address) {
+        return address == null || address.isEmpty() ? "" : AddressUtil.extractCity(address);
+    }
+
+    private static String nullToEmpty(String str) {
+        return str != null ? str : "";
+    }
+}
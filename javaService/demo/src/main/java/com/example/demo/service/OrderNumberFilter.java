@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.util.ScalableBloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单号 / 运单号存在性过滤器
+ * 对已有订单号和运单号各维护一个可扩容布隆过滤器，判定一定不存在时无需查询数据库。
+ * 在 ApplicationReadyEvent 中同步构建（此时已开始接收请求），构建完成前一律判定为可能存在。
+ * 订单创建、发货时在事件发布时（事务提交前）立即写入，保证同一事务内后续判断可见，回滚只会多出误判；
+ * 其他节点（app.node-id 不同的实例）写入的号码收不到事件，由定时任务按 updated_at 水位从订单表补充，
+ * 每轮回看 bloom-refresh-overlap-seconds 以覆盖提交较晚的事务；其他节点新建的订单在下一轮补充前
+ * 可能被误判为不存在，最长约 bloom-refresh-ms。
+ * 删除不从过滤器移除，已删除的号码只会被判为可能存在，再由数据库确认。
+ */
+@Service
+public class OrderNumberFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberFilter.class);
+    private static final int BATCH_SIZE = 10000;
+
+    private final ScalableBloomFilter orderNos;
+    private final ScalableBloomFilter trackingNos;
+    private volatile boolean ready;
+
+    // 增量补充水位：上一轮开始读取的时间
+    private LocalDateTime watermark;
+
+    @Value("${app.orders.bloom-refresh-overlap-seconds:30}")
+    private long overlapSeconds;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    public OrderNumberFilter(@Value("${app.orders.bloom-initial-capacity:100000}") int initialCapacity,
+                             @Value("${app.orders.bloom-fpp:0.01}") double falsePositiveRate) {
+        this.orderNos = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+        this.trackingNos = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+    }
+
+    /**
+     * 应用启动完成后从数据库加载全部订单号和运单号
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        // 构建期间写入的订单由第一轮增量补充覆盖
+        watermark = LocalDateTime.now();
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = orderRepository.findSearchFieldsAfterId(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (Object[] row : rows) {
+                orderNos.add((String) row[1]);
+                trackingNos.add((String) row[2]);
+            }
+            if (!rows.isEmpty()) {
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == BATCH_SIZE);
+        ready = true;
+        log.info("订单号过滤器构建完成，订单号 {} 个，运单号 {} 个，占用 {} KB，耗时 {} ms",
+            orderNos.size(), trackingNos.size(), (orderNos.sizeInBytes() + trackingNos.sizeInBytes()) / 1024,
+            System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 定时从订单表补充水位之后修改过的号码（含其他节点写入的订单），重复写入不影响过滤器
+     */
+    @Scheduled(fixedDelayString = "${app.orders.bloom-refresh-ms:5000}",
+               initialDelayString = "${app.orders.bloom-refresh-ms:5000}")
+    public synchronized void refresh() {
+        if (!ready) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = watermark.minusSeconds(overlapSeconds);
+            long afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = orderRepository.findNumbersUpdatedAfter(from, afterId, PageRequest.of(0, BATCH_SIZE));
+                for (Object[] row : rows) {
+                    orderNos.add((String) row[1]);
+                    trackingNos.add((String) row[2]);
+                }
+                if (!rows.isEmpty()) {
+                    Object[] last = rows.get(rows.size() - 1);
+                    afterId = (Long) last[0];
+                    from = (LocalDateTime) last[3];
+                }
+            } while (rows.size() == BATCH_SIZE);
+            watermark = now;
+        } catch (Exception e) {
+            log.error("订单号过滤器增量补充失败", e);
+        }
+    }
+
+    /**
+     * 订单创建、发货等变更发布时写入号码
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getType() == OrderChangedEvent.Type.DELETED) {
+            return;
+        }
+        Order order = event.getOrder();
+        orderNos.add(order.getOrderNo());
+        trackingNos.add(order.getTrackingNo());
+    }
+
+    /**
+     * 订单号是否可能存在，false 表示一定不存在
+     */
+    public boolean mightContainOrderNo(String orderNo) {
+        return !ready || orderNos.mightContain(orderNo);
+    }
+
+    /**
+     * 运单号是否可能存在，false 表示一定不存在
+     */
+    public boolean mightContainTrackingNo(String trackingNo) {
+        return !ready || trackingNos.mightContain(trackingNo);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.util.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 订单子串搜索索引
+ * 对订单号、运单号、货物名称、寄件人、收件人建立 trigram 倒排索引，
+ * 列表查询先用索引把 LIKE '%x%' 条件解析为候选 id，再到数据库按主键过滤，避免全表扫描。
+ * 在 ApplicationReadyEvent 中同步构建（此时已开始接收请求），构建完成前以及查询词过短、候选过多时退回 LIKE 查询。
+ * 本节点的变更由事件写入；其他节点、数据迁移或直接 SQL 写入的订单收不到事件，由定时任务按 updated_at 水位
+ * 从订单表补充（与 OrderNumberFilter 相同）。补充存在延迟，因此查询除候选 id 外还要用 LIKE 检查
+ * updated_at 不早于 {@link Candidates#unindexedSince()} 或为空的行，索引缺漏不会使有匹配的订单查不到。
+ * 不修改 updated_at 的直接 SQL 更新无法发现。
+ */
+@Service
+public class OrderSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSearchIndex.class);
+    private static final int BATCH_SIZE = 10000;
+
+    private static final int ORDER_NO = 0;
+    private static final int TRACKING_NO = 1;
+    private static final int CARGO_NAME = 2;
+    private static final int SENDER_NAME = 3;
+    private static final int RECEIVER_NAME = 4;
+
+    private final TrigramIndex index = new TrigramIndex(5);
+    private volatile boolean ready;
+
+    // 增量补充水位：上一轮开始读取的时间
+    private LocalDateTime watermark;
+
+    // 修改时间早于该值的订单已确定写入索引
+    private volatile LocalDateTime indexedBefore;
+
+    @Value("${app.search.index-refresh-overlap-seconds:30}")
+    private long overlapSeconds;
+
+    // 候选 id 超过该数量时不再使用 IN 条件，直接走 LIKE
+    @Value("${app.search.max-candidates:5000}")
+    private int maxCandidates;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    /**
+     * 应用启动完成后构建索引，构建期间的订单变更由事件写入，构建时不覆盖
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        // 构建期间写入的订单由第一轮增量补充覆盖
+        watermark = LocalDateTime.now();
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = orderRepository.findSearchFieldsAfterId(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (Object[] row : rows) {
+                index.putIfAbsent((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                    (String) row[4], (String) row[5]);
+            }
+            if (!rows.isEmpty()) {
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == BATCH_SIZE);
+        indexedBefore = watermark.minusSeconds(overlapSeconds);
+        ready = true;
+        log.info("订单搜索索引构建完成，共 {} 条订单，耗时 {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 定时从订单表补充水位之后修改过的订单（含其他节点写入的订单），以数据库中的值覆盖索引；
+     * 与事件并发时可能短暂写回旧值，该订单的 updated_at 仍在 indexedBefore 之后，查询时由 LIKE 检查
+     */
+    @Scheduled(fixedDelayString = "${app.search.index-refresh-ms:5000}",
+               initialDelayString = "${app.search.index-refresh-ms:5000}")
+    public synchronized void refresh() {
+        if (!ready) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = watermark.minusSeconds(overlapSeconds);
+            long afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = orderRepository.findSearchFieldsUpdatedAfter(from, afterId, PageRequest.of(0, BATCH_SIZE));
+                for (Object[] row : rows) {
+                    index.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                        (String) row[4], (String) row[5]);
+                }
+                if (!rows.isEmpty()) {
+                    Object[] last = rows.get(rows.size() - 1);
+                    afterId = (Long) last[0];
+                    from = (LocalDateTime) last[6];
+                }
+            } while (rows.size() == BATCH_SIZE);
+            watermark = now;
+            indexedBefore = now.minusSeconds(overlapSeconds);
+        } catch (Exception e) {
+            log.error("订单搜索索引增量补充失败", e);
+        }
+    }
+
+    /**
+     * 订单变更提交后更新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        if (order.getId() == null) {
+            return;
+        }
+        if (event.getType() == OrderChangedEvent.Type.DELETED) {
+            index.remove(order.getId());
+        } else {
+            index.put(order.getId(), order.getOrderNo(), order.getTrackingNo(), order.getCargoName(),
+                order.getSenderName(), order.getReceiverName());
+        }
+    }
+
+    /**
+     * 把子串条件解析为候选订单 id（各条件取交集）
+     * 候选集是已索引订单中结果的超集，调用方仍需保留原 LIKE 条件，并用 LIKE 检查尚未确定写入索引的行
+     * @return 候选；索引未就绪、没有可用条件或候选过多时返回 null
+     */
+    public Candidates findCandidates(String orderNo, String trackingNo, String cargoName,
+                                     String senderName, String receiverName) {
+        if (!ready) {
+            return null;
+        }
+        // 先取水位再查索引：期间补充写入的订单 updated_at 不早于该水位，仍会被 LIKE 检查
+        LocalDateTime unindexedSince = indexedBefore;
+        long[] result = null;
+        String[] terms = {orderNo, trackingNo, cargoName, senderName, receiverName};
+        int[] fields = {ORDER_NO, TRACKING_NO, CARGO_NAME, SENDER_NAME, RECEIVER_NAME};
+        for (int i = 0; i < terms.length; i++) {
+            long[] candidates = index.candidates(fields[i], terms[i]);
+            if (candidates == null) {
+                continue;
+            }
+            result = result == null ? candidates : intersect(result, candidates);
+            if (result.length == 0) {
+                return new Candidates(List.of(), unindexedSince);
+            }
+        }
+        if (result == null || result.length > maxCandidates) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>(result.length);
+        for (long id : result) {
+            ids.add(id);
+        }
+        return new Candidates(ids, unindexedSince);
+    }
+
+    /**
+     * 子串条件的候选
+     * @param ids 已索引订单中可能匹配的 id，空列表表示已索引订单中一定没有匹配
+     * @param unindexedSince updated_at 不早于该时间或为空的订单可能尚未写入索引，需另用 LIKE 检查
+     */
+    public record Candidates(List<Long> ids, LocalDateTime unindexedSince) {}
+
+    /**
+     * 两个升序数组求交集
+     */
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
@@ -3,13 +3,16 @@ package com.example.demo.service;
 import com.example.demo.dto.ExportRequest;
 import com.example.demo.dto.ImportError;
 import com.example.demo.dto.ImportResultDTO;
+import com.example.demo.dto.OrderLookupResult;
 import com.example.demo.dto.PageResult;
 import com.example.demo.dto.RoutePlanResponse.TrackPoint;
 import com.example.demo.entity.OperationLog;
 import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
 import com.example.demo.repository.OperationLogRepository;
 import com.example.demo.repository.OrderRepository;
 import com.example.demo.util.ExcelUtil;
+import com.example.demo.util.OrderNoGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -17,19 +20,26 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.persistence.criteria.Predicate;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.LongSupplier;
 import java.util.regex.Pattern;
 
 @Service
@@ -40,6 +50,16 @@ public class OrderService {
     // 手机号正则：11位数字
     private static final Pattern PHONE_PATTERN = Pattern.compile("^\\d{11}$");
     
+    // 列表总数计算方式：exact 计算（由计数缓存提供），none 不计算
+    private static final String COUNT_EXACT = "exact";
+    private static final String COUNT_NONE = "none";
+    
+    // 导入时每批行数，每批一个事务（与 hibernate.jdbc.batch_size 一致）
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    
+    // 导入结果中最多返回的错误明细条数
+    private static final int MAX_IMPORT_ERRORS = 10000;
+    
     // 有效的货物类型枚举（代码形式）
     private static final Set<String> VALID_CARGO_TYPES = Set.of(
         "normal", "fragile", "dangerous", "cold", "document"
@@ -66,8 +86,36 @@ public class OrderService {
     
     @Autowired
     private ExpressCompanyService expressCompanyService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OrderSearchIndex searchIndex;
+    
+    @Autowired
+    private OrderCountCache countCache;
+    
+    @Autowired
+    private PhoneOrderStatsCache phoneStatsCache;
+    
+    @Autowired
+    private OrderCache orderCache;
+    
+    @Autowired
+    private OrderNumberFilter numberFilter;
+    
+    @Autowired
+    private OrderNoGenerator orderNoGenerator;
+    
+    // 批量查询单次最多的订单号/运单号数量
+    @Value("${app.orders.lookup-max:500}")
+    private int lookupMax;
+
+    private final TransactionTemplate transactionTemplate;
 
-    public OrderService() {
+    public OrderService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -78,9 +126,11 @@ public class OrderService {
      */
     @Transactional
     public Order createOrder(Order order) {
-        order.setOrderNo(generateOrderNo());
+        order.setOrderNo(orderNoGenerator.next());
         order.setStatus("pending");
-        order.setCreateTime(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        LocalDateTime now = LocalDateTime.now();
+        order.setCreateTime(now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        order.setCreatedAt(now);
         
         Order saved = orderRepository.save(order);
         
@@ -88,42 +138,77 @@ public class OrderService {
         OperationLog opLog = new OperationLog(saved.getOrderNo(), "create", null, "pending", "system");
         operationLogRepository.save(opLog);
         
+        eventPublisher.publishEvent(OrderChangedEvent.created(saved));
         log.info("创建订单: {}", saved.getOrderNo());
         return saved;
     }
 
     /**
      * 查询订单列表（使用JPA Specification动态查询）
+     * @param after 游标模式：返回 id 小于 after 的下一页（按 id 降序），为空时按 page 偏移分页
+     * @param countMode 总数计算方式：exact 由计数缓存提供，none 不计算（total 为 -1）
+     * @throws IllegalArgumentException countMode 不是 exact 或 none
      */
     public PageResult<Order> getOrders(int page, int pageSize, String orderNo,
                                        String trackingNo, String status, String cargoType, 
                                        String cargoName, String expressCompany, String senderName, 
-                                       String receiverName, String receiverPhone) {
+                                       String receiverName, String receiverPhone, Long after, String countMode) {
         
         Specification<Order> spec = buildSpecification(orderNo, trackingNo, status, cargoType, 
             cargoName, expressCompany, senderName, receiverName, receiverPhone, null);
         
-        PageRequest pageRequest = PageRequest.of(page - 1, pageSize, Sort.by(Sort.Direction.DESC, "id"));
-        Page<Order> pageResult = orderRepository.findAll(spec, pageRequest);
+        return queryPage(spec, page, pageSize, after, countMode, () -> countCache.count(orderNo, trackingNo,
+            status, cargoType, cargoName, expressCompany, senderName, receiverName, receiverPhone, null, spec));
+    }
+    
+    /**
+     * 分页查询，按 id 降序，分页查询本身不执行 COUNT
+     * 指定 after 时按 id 索引定位到 after 之后取一页（忽略 page），不随翻页变深而变慢
+     */
+    private PageResult<Order> queryPage(Specification<Order> spec, int page, int pageSize, Long after,
+                                        String countMode, LongSupplier totalCounter) {
+        if (!COUNT_EXACT.equals(countMode) && !COUNT_NONE.equals(countMode)) {
+            throw new IllegalArgumentException("count 只能为 exact 或 none");
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+        Specification<Order> pageSpec = after == null ? spec
+            : spec.and((root, query, cb) -> cb.lessThan(root.<Long>get("id"), after));
+        long offset = after == null ? (long) (page - 1) * pageSize : 0;
         
-        // 转换trackPointsJson为trackPoints
-        List<Order> orders = pageResult.getContent().stream()
-            .peek(this::convertTrackPointsFromJson)
-            .toList();
+        // 多取一条判断是否还有下一页
+        List<Order> rows = orderRepository.findPage(pageSpec, sort, offset, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<Order> orders = hasNext ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasNext ? orders.get(orders.size() - 1).getId() : null;
+        long total = COUNT_NONE.equals(countMode) ? -1 : totalCounter.getAsLong();
+        
+        // 列表视图不含轨迹点，只填充快递公司名称
+        orders.forEach(this::fillExpressCompanyName);
         
-        return new PageResult<>(orders, (int) pageResult.getTotalElements());
+        return new PageResult<>(orders, total, nextCursor);
     }
     
     /**
      * 构建动态查询条件
+     * 子串条件先通过搜索索引解析为候选 id，数据库只需按主键过滤候选行，
+     * 以及按 updated_at 索引过滤最近修改、可能尚未写入搜索索引的行
      */
     private Specification<Order> buildSpecification(String orderNo, String trackingNo, String status,
                                                      String cargoType, String cargoName, String expressCompany,
                                                      String senderName, String receiverName, String receiverPhone,
                                                      String senderPhone) {
+        OrderSearchIndex.Candidates candidates =
+            searchIndex.findCandidates(orderNo, trackingNo, cargoName, senderName, receiverName);
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             
+            if (candidates != null) {
+                Predicate unindexed = cb.or(
+                    cb.greaterThanOrEqualTo(root.<LocalDateTime>get("updatedAt"), candidates.unindexedSince()),
+                    cb.isNull(root.get("updatedAt")));
+                predicates.add(candidates.ids().isEmpty()
+                    ? unindexed : cb.or(root.get("id").in(candidates.ids()), unindexed));
+            }
             if (orderNo != null && !orderNo.isEmpty()) {
                 predicates.add(cb.like(root.get("orderNo"), "%" + orderNo + "%"));
             }
@@ -160,21 +245,75 @@ public class OrderService {
     }
 
     /**
-     * 根据订单号获取订单
+     * 根据订单号获取订单（经订单缓存，返回的是不受持久化上下文管理的副本，修改后需调用 updateOrder）
+     * 订单号过滤器判定一定不存在时不查询数据库
      */
     public Order getOrder(String orderNo) {
-        return orderRepository.findByOrderNo(orderNo)
-            .map(this::convertTrackPointsFromJson)
-            .orElse(null);
+        Order order = orderCache.get(orderNo, no -> numberFilter.mightContainOrderNo(no)
+            ? orderRepository.findByOrderNo(no).orElse(null) : null);
+        return order != null ? convertTrackPointsFromJson(order) : null;
     }
 
     /**
-     * 根据运单号获取订单
+     * 根据订单号从数据库读取订单（不经订单缓存），用于读取后修改再 updateOrder 的写操作：
+     * 缓存中的副本可能是其他节点修改前的旧值，据此校验状态或整体保存会覆盖更新的列
+     */
+    public Order getOrderForUpdate(String orderNo) {
+        Order order = orderRepository.findByOrderNo(orderNo).orElse(null);
+        return order != null ? convertTrackPointsFromJson(order) : null;
+    }
+
+    /**
+     * 根据运单号获取订单（经订单缓存），运单号过滤器判定一定不存在时不查询数据库
      */
     public Order getOrderByTrackingNo(String trackingNo) {
-        return orderRepository.findByTrackingNo(trackingNo)
-            .map(this::convertTrackPointsFromJson)
-            .orElse(null);
+        Order order = orderCache.getByTrackingNo(trackingNo, no -> numberFilter.mightContainTrackingNo(no)
+            ? orderRepository.findByTrackingNo(no).orElse(null) : null);
+        return order != null ? convertTrackPointsFromJson(order) : null;
+    }
+
+    /**
+     * 批量查询订单（订单号或运单号），一次 IN 查询取回全部订单
+     * 过滤器判定一定不存在的号码不参与查询
+     * @param queryType "trackingNo" 按运单号，其他按订单号
+     * @throws IllegalArgumentException 号码为空或超过单次上限
+     */
+    public OrderLookupResult lookupOrders(List<String> values, String queryType) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("请提供要查询的订单号或运单号");
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                distinct.add(value.trim());
+            }
+        }
+        if (distinct.size() > lookupMax) {
+            throw new IllegalArgumentException("单次最多查询 " + lookupMax + " 个订单");
+        }
+        
+        boolean byTrackingNo = "trackingNo".equals(queryType);
+        List<String> candidates = distinct.stream()
+            .filter(v -> byTrackingNo ? numberFilter.mightContainTrackingNo(v) : numberFilter.mightContainOrderNo(v))
+            .toList();
+        List<Order> found = candidates.isEmpty() ? List.of()
+            : byTrackingNo ? orderRepository.findByTrackingNoIn(candidates) : orderRepository.findByOrderNoIn(candidates);
+        
+        Map<String, Order> byKey = new HashMap<>();
+        for (Order order : found) {
+            byKey.put(byTrackingNo ? order.getTrackingNo() : order.getOrderNo(), order);
+        }
+        List<Order> orders = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+        for (String value : distinct) {
+            Order order = byKey.get(value);
+            if (order != null) {
+                orders.add(convertTrackPointsFromJson(order));
+            } else {
+                notFound.add(value);
+            }
+        }
+        return new OrderLookupResult(orders, notFound);
     }
 
     /**
@@ -196,7 +335,9 @@ public class OrderService {
         if (order == null || order.getOrderNo() == null) {
             return null;
         }
+        orderCache.invalidate(order.getOrderNo());
         Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.updated(saved));
         log.info("更新订单: {}", saved.getOrderNo());
         return saved;
     }
@@ -208,7 +349,9 @@ public class OrderService {
     public boolean deleteOrder(String orderNo) {
         Optional<Order> order = orderRepository.findByOrderNo(orderNo);
         if (order.isPresent()) {
+            orderCache.invalidate(orderNo);
             orderRepository.delete(order.get());
+            eventPublisher.publishEvent(OrderChangedEvent.deleted(order.get()));
             log.info("删除订单: {}", orderNo);
             return true;
         }
@@ -230,10 +373,11 @@ public class OrderService {
         return deleted;
     }
 
-    private String generateOrderNo() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String random = String.format("%04d", new Random().nextInt(10000));
-        return "ORD" + date + random;
+    /**
+     * 获取订单缓存指标
+     */
+    public Map<String, Object> getCacheStats() {
+        return orderCache.getStats();
     }
 
     /**
@@ -255,25 +399,17 @@ public class OrderService {
 
     /**
      * 根据手机号获取订单统计
+     * 各状态订单数取自按手机号缓存的计数，不加载订单
      */
     public Map<String, Object> getStatsByPhone(String phone, String type) {
-        List<Order> filtered;
-        if ("sender".equals(type)) {
-            filtered = orderRepository.findBySenderPhone(phone);
-        } else {
-            filtered = orderRepository.findByReceiverPhone(phone);
-        }
-        
-        long total = filtered.size();
-        long pending = filtered.stream().filter(o -> "pending".equals(o.getStatus())).count();
-        long shipping = filtered.stream().filter(o -> "shipping".equals(o.getStatus())).count();
-        long completed = filtered.stream().filter(o -> "completed".equals(o.getStatus())).count();
+        Map<String, Long> counts = phoneStatsCache.countByStatus(phone, type);
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
         
         return Map.of(
             "total", total,
-            "pending", pending,
-            "shipping", shipping,
-            "completed", completed
+            "pending", counts.getOrDefault("pending", 0L),
+            "shipping", counts.getOrDefault("shipping", 0L),
+            "completed", counts.getOrDefault("completed", 0L)
         );
     }
 
@@ -282,18 +418,13 @@ public class OrderService {
      */
     public PageResult<Order> getOrdersBySenderPhone(int page, int pageSize, String orderNo,
                                                      String trackingNo, String status, 
-                                                     String cargoName, String senderPhone) {
+                                                     String cargoName, String senderPhone,
+                                                     Long after, String countMode) {
         Specification<Order> spec = buildSpecification(orderNo, trackingNo, status, null, 
             cargoName, null, null, null, null, senderPhone);
         
-        PageRequest pageRequest = PageRequest.of(page - 1, pageSize, Sort.by(Sort.Direction.DESC, "id"));
-        Page<Order> pageResult = orderRepository.findAll(spec, pageRequest);
-        
-        List<Order> orders = pageResult.getContent().stream()
-            .peek(this::convertTrackPointsFromJson)
-            .toList();
-        
-        return new PageResult<>(orders, (int) pageResult.getTotalElements());
+        return queryPage(spec, page, pageSize, after, countMode, () -> countCache.count(orderNo, trackingNo,
+            status, null, cargoName, null, null, null, null, senderPhone, spec));
     }
 
     // ==================== TrackPoints JSON转换 ====================
@@ -303,12 +434,7 @@ public class OrderService {
      */
     private Order fillExpressCompanyName(Order order) {
         if (order.getExpressCompany() != null && !order.getExpressCompany().isEmpty()) {
-            var company = expressCompanyService.getByCode(order.getExpressCompany());
-            if (company != null) {
-                order.setExpressCompanyName(company.getName());
-            } else {
-                order.setExpressCompanyName(order.getExpressCompany());
-            }
+            order.setExpressCompanyName(expressCompanyService.getName(order.getExpressCompany()));
         }
         return order;
     }
@@ -356,23 +482,109 @@ public class OrderService {
 
     /**
      * 导入订单
+     * 上传文件先落盘为临时文件，再流式读取，见 {@link #importOrders(File, ImportProgressListener)}
      */
-    @Transactional
     public ImportResultDTO importOrders(MultipartFile file) throws IOException {
-        List<Order> parsedOrders = excelUtil.parseExcel(file);
+        Path temp = Files.createTempFile("order-import-", ".xlsx");
+        try {
+            file.transferTo(temp);
+            return importOrders(temp.toFile(), null);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 流式导入订单文件
+     * 按 IMPORT_CHUNK_SIZE 行一批校验并写入，每批一个事务（批量 INSERT），
+     * 内存中只保留当前批次（共享字符串表落盘按需读取）；错误明细最多保留 MAX_IMPORT_ERRORS 条
+     * @param listener 批次提交后的进度回调，可为 null
+     */
+    public ImportResultDTO importOrders(File file, ImportProgressListener listener) throws IOException {
+        int[] counts = new int[2];  // 总数、成功数
+        List<ImportError> errors = new ArrayList<>();
+        
+        excelUtil.readOrders(file, IMPORT_CHUNK_SIZE, chunk -> {
+            List<ImportError> chunkErrors = new ArrayList<>();
+            int success = commitChunk(chunk, chunkErrors);
+            counts[0] += chunk.size();
+            counts[1] += success;
+            if (listener != null) {
+                listener.onChunkCommitted(chunk.size(), success);
+            }
+            for (ImportError error : chunkErrors) {
+                if (errors.size() >= MAX_IMPORT_ERRORS) {
+                    break;
+                }
+                errors.add(error);
+            }
+        });
         
         ImportResultDTO result = new ImportResultDTO();
-        result.setTotal(parsedOrders.size());
+        result.setTotal(counts[0]);
+        result.setSuccess(counts[1]);
+        result.setFailed(counts[0] - counts[1]);
+        result.setErrors(errors);
+        
+        log.info("订单导入完成: 总数={}, 成功={}, 失败={}", 
+            result.getTotal(), result.getSuccess(), result.getFailed());
+        
+        return result;
+    }
+
+    /**
+     * 在一个事务中写入一批订单；写入或提交失败（如数据库约束冲突）时整批回滚，
+     * 再逐行各自开事务重试，失败的行记为导入错误，不影响同批其他行和后续批次
+     * @return 成功写入的条数
+     */
+    private int commitChunk(List<ExcelUtil.ImportRow> chunk, List<ImportError> errors) {
+        List<ImportError> chunkErrors = new ArrayList<>();
+        try {
+            Integer imported = transactionTemplate.execute(status -> importChunk(chunk, chunkErrors));
+            errors.addAll(chunkErrors);
+            return imported != null ? imported : 0;
+        } catch (RuntimeException e) {
+            log.warn("订单导入批次写入失败，逐行重试: 起始行={}, 行数={}, 原因={}",
+                chunk.get(0).getRowNum(), chunk.size(), e.getMessage());
+        }
         
         int successCount = 0;
-        List<ImportError> errors = new ArrayList<>();
+        for (ExcelUtil.ImportRow row : chunk) {
+            // 回滚不会撤销整批写入时分配的主键，带主键保存会走 merge 而非 persist，重试前清除
+            Order order = row.getOrder();
+            order.setId(null);
+            order.setUpdatedAt(null);
+            List<ImportError> rowErrors = new ArrayList<>();
+            try {
+                Integer imported = transactionTemplate.execute(status -> importChunk(List.of(row), rowErrors));
+                successCount += imported != null ? imported : 0;
+                errors.addAll(rowErrors);
+            } catch (RuntimeException e) {
+                Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+                errors.add(new ImportError(row.getRowNum(), "订单号", order.getOrderNo(),
+                    "写入失败：" + cause.getMessage()));
+            }
+        }
+        return successCount;
+    }
+
+    /**
+     * 校验并写入一批订单
+     * @return 成功写入的条数
+     */
+    private int importChunk(List<ExcelUtil.ImportRow> chunk, List<ImportError> errors) {
+        int successCount = 0;
+        // 同批次内已导入的订单号，批内重复无需查询数据库
+        Set<String> importedOrderNos = new HashSet<>();
         
-        for (int i = 0; i < parsedOrders.size(); i++) {
-            int rowNum = i + 2;
-            Order order = parsedOrders.get(i);
+        for (ExcelUtil.ImportRow row : chunk) {
+            int rowNum = row.getRowNum();
+            Order order = row.getOrder();
             
             if (order.getOrderNo() != null && !order.getOrderNo().isEmpty()) {
-                if (orderRepository.existsByOrderNo(order.getOrderNo())) {
+                if (importedOrderNos.contains(order.getOrderNo())
+                        || (numberFilter.mightContainOrderNo(order.getOrderNo())
+                            && orderRepository.existsByOrderNo(order.getOrderNo()))) {
                     errors.add(new ImportError(rowNum, "订单号", order.getOrderNo(), "订单已存在"));
                     continue;
                 }
@@ -382,26 +594,23 @@ public class OrderService {
             
             if (rowErrors.isEmpty()) {
                 importCreateOrder(order);
+                importedOrderNos.add(order.getOrderNo());
                 successCount++;
             } else {
                 errors.addAll(rowErrors);
             }
         }
-        
-        result.setSuccess(successCount);
-        result.setFailed(parsedOrders.size() - successCount);
-        result.setErrors(errors);
-        
-        log.info("订单导入完成: 总数={}, 成功={}, 失败={}", 
-            result.getTotal(), result.getSuccess(), result.getFailed());
-        
-        return result;
+        return successCount;
     }
     
     private Order importCreateOrder(Order order) {
         order.setStatus("pending");
-        order.setCreateTime(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-        return orderRepository.save(order);
+        LocalDateTime now = LocalDateTime.now();
+        order.setCreateTime(now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        order.setCreatedAt(now);
+        Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.created(saved));
+        return saved;
     }
 
     private List<ImportError> validateOrder(Order order, int rowNum) {
@@ -435,6 +644,14 @@ public class OrderService {
         } else if (!PHONE_PATTERN.matcher(order.getReceiverPhone()).matches()) {
             errors.add(new ImportError(rowNum, "收货人电话", order.getReceiverPhone(), "格式错误"));
         }
+        // 长度与 orders 表列定义一致，超长在数据库写入时才会失败
+        checkLength(errors, rowNum, "订单号", order.getOrderNo(), 50);
+        checkLength(errors, rowNum, "货物名称", order.getCargoName(), 100);
+        checkLength(errors, rowNum, "发货人", order.getSenderName(), 50);
+        checkLength(errors, rowNum, "收货人", order.getReceiverName(), 50);
+        checkLength(errors, rowNum, "发货地址", order.getOrigin(), 255);
+        checkLength(errors, rowNum, "收货地址", order.getDestination(), 255);
+        checkLength(errors, rowNum, "备注", order.getRemark(), 500);
         if (!isBlank(order.getCargoType()) && !VALID_CARGO_TYPES.contains(order.getCargoType())) {
             errors.add(new ImportError(rowNum, "货物类型", order.getCargoType(), "无效"));
         }
@@ -445,6 +662,13 @@ public class OrderService {
         return errors;
     }
 
+    private void checkLength(List<ImportError> errors, int rowNum, String field, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            errors.add(new ImportError(rowNum, field, value.substring(0, maxLength) + "...",
+                "长度不能超过 " + maxLength + " 个字符"));
+        }
+    }
+
     private boolean isBlank(String str) {
         return str == null || str.trim().isEmpty();
     }
@@ -455,16 +679,18 @@ public class OrderService {
     public List<Order> exportOrders(ExportRequest request) {
         List<Order> result;
         
+        // 导出不需要轨迹点，按列表视图读取
         if (request.getIds() != null && !request.getIds().isEmpty()) {
-            result = orderRepository.findAllById(request.getIds());
+            List<Long> ids = request.getIds();
+            result = orderRepository.findListView((root, query, cb) -> root.get("id").in(ids), Sort.unsorted());
         } else if (request.getFilters() != null) {
             ExportRequest.OrderQueryParams f = request.getFilters();
             Specification<Order> spec = buildSpecification(f.getOrderNo(), null, f.getStatus(),
                 f.getCargoType(), f.getCargoName(), f.getExpressCompany(), f.getSenderName(),
                 f.getReceiverName(), f.getReceiverPhone(), null);
-            result = orderRepository.findAll(spec);
+            result = orderRepository.findListView(spec, Sort.unsorted());
         } else {
-            result = orderRepository.findAll();
+            result = orderRepository.findListView(null, Sort.unsorted());
         }
         
         return result;
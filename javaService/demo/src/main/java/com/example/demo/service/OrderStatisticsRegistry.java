@@ -0,0 +1,249 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.repository.OrderDailyStatRepository;
+import com.example.demo.util.AddressUtil;
+import com.example.demo.util.SpaceSaving;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 订单统计计数器
+ * 启动时从日汇总表初始化一次，之后由订单变更事件增量维护，
+ * 统计接口直接读取内存计数，不再扫描订单表
+ */
+@Service
+@DependsOn("orderDailyStatsAggregator")
+public class OrderStatisticsRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatisticsRegistry.class);
+
+    private final LongAdder total = new LongAdder();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> expressCompanyCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> monthCounts = new ConcurrentHashMap<>();  // key: yyyy-MM
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    // 热门城市使用固定容量的 Space-Saving 结构，内存不随城市数增长
+    private SpaceSaving originCities;
+    private SpaceSaving destinationCities;
+
+    @Value("${app.statistics.top-cities-capacity:1000}")
+    private int topCitiesCapacity;
+
+    @Autowired
+    private OrderDailyStatRepository dailyStatRepository;
+
+    @PostConstruct
+    public void init() {
+        for (Object[] row : dailyStatRepository.sumGroupByStatus()) {
+            add(statusCounts, (String) row[0], (Long) row[1]);
+            total.add((Long) row[1]);
+        }
+        for (Object[] row : dailyStatRepository.sumGroupByExpressCompany()) {
+            add(expressCompanyCounts, (String) row[0], (Long) row[1]);
+        }
+        originCities = new SpaceSaving(topCitiesCapacity);
+        originCities.seed(toCounts(dailyStatRepository.sumGroupByOriginCity()));
+        destinationCities = new SpaceSaving(topCitiesCapacity);
+        destinationCities.seed(toCounts(dailyStatRepository.sumGroupByDestinationCity()));
+        // 月度计数只需覆盖上月和本月，更早的月份不会再被查询
+        YearMonth currentMonth = YearMonth.now();
+        for (YearMonth month : List.of(currentMonth.minusMonths(1), currentMonth)) {
+            Long count = dailyStatRepository.sumBetween(month.atDay(1), month.plusMonths(1).atDay(1));
+            add(monthCounts, month.toString(), count != null ? count : 0L);
+        }
+        log.info("订单统计计数器初始化完成，共 {} 条订单", total.sum());
+    }
+
+    /**
+     * 订单变更后（事务提交后）增量更新计数
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        // 更新方持有读锁可以并发执行，快照持有写锁，保证快照内各项计数一致
+        snapshotLock.readLock().lock();
+        try {
+            switch (event.getType()) {
+                case CREATED -> apply(order, order.getStatus(), 1);
+                case DELETED -> apply(order, order.getStatus(), -1);
+                case STATUS_CHANGED -> {
+                    add(statusCounts, event.getFromStatus(), -1);
+                    add(statusCounts, order.getStatus(), 1);
+                }
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private void apply(Order order, String status, long delta) {
+        total.add(delta);
+        add(statusCounts, status, delta);
+        add(expressCompanyCounts, order.getExpressCompany(), delta);
+        if (!isBlank(order.getOrigin())) {
+            addCity(originCities, AddressUtil.extractCity(order.getOrigin()), delta);
+        }
+        if (!isBlank(order.getDestination())) {
+            addCity(destinationCities, AddressUtil.extractCity(order.getDestination()), delta);
+        }
+        add(monthCounts, monthKey(order.getCreatedAt()), delta);
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 获取一致的计数快照
+     * 持有写锁期间会阻塞事件更新，只用于需要多项计数互相一致的场景（仪表盘），每次请求取一次
+     * @param topCitiesLimit 快照中保留的热门城市数量
+     */
+    public Snapshot snapshot(int topCitiesLimit) {
+        snapshotLock.writeLock().lock();
+        try {
+            return current(topCitiesLimit);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取当前计数，不加锁、不阻塞事件更新
+     * 各项计数之间可能相差正在进行中的更新，适合只返回单项统计的接口
+     * @param topCitiesLimit 保留的热门城市数量
+     */
+    public Snapshot current(int topCitiesLimit) {
+        YearMonth currentMonth = YearMonth.now();
+        return new Snapshot(
+            total.sum(),
+            copy(statusCounts),
+            copy(expressCompanyCounts),
+            get(monthCounts, currentMonth.toString()),
+            get(monthCounts, currentMonth.minusMonths(1).toString()),
+            originCities.top(topCitiesLimit),
+            destinationCities.top(topCitiesLimit),
+            originCities.maxError(),
+            destinationCities.maxError());
+    }
+
+    /**
+     * 计数快照
+     * 热门城市计数为 Space-Saving 近似值，每项最多高估对应的 maxError（总订单数 / 监控容量）
+     */
+    public static class Snapshot {
+        private final long total;
+        private final Map<String, Long> statusCounts;
+        private final Map<String, Long> expressCompanyCounts;
+        private final long monthCount;
+        private final long lastMonthCount;
+        private final Map<String, Long> topOriginCities;
+        private final Map<String, Long> topDestinationCities;
+        private final long originCitiesMaxError;
+        private final long destinationCitiesMaxError;
+
+        Snapshot(long total, Map<String, Long> statusCounts, Map<String, Long> expressCompanyCounts,
+                 long monthCount, long lastMonthCount,
+                 Map<String, Long> topOriginCities, Map<String, Long> topDestinationCities,
+                 long originCitiesMaxError, long destinationCitiesMaxError) {
+            this.total = total;
+            this.statusCounts = statusCounts;
+            this.expressCompanyCounts = expressCompanyCounts;
+            this.monthCount = monthCount;
+            this.lastMonthCount = lastMonthCount;
+            this.topOriginCities = topOriginCities;
+            this.topDestinationCities = topDestinationCities;
+            this.originCitiesMaxError = originCitiesMaxError;
+            this.destinationCitiesMaxError = destinationCitiesMaxError;
+        }
+
+        public long getTotal() { return total; }
+        public long getStatusCount(String status) { return statusCounts.getOrDefault(status, 0L); }
+        public Map<String, Long> getExpressCompanyCounts() { return expressCompanyCounts; }
+        public long getMonthCount() { return monthCount; }
+        public long getLastMonthCount() { return lastMonthCount; }
+
+        /**
+         * @param type "origin" 发货城市 或 "destination" 收货城市
+         */
+        public Map<String, Long> getTopCities(String type) {
+            return "origin".equals(type) ? topOriginCities : topDestinationCities;
+        }
+
+        public long getTopCitiesMaxError(String type) {
+            return "origin".equals(type) ? originCitiesMaxError : destinationCitiesMaxError;
+        }
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private static void add(Map<String, LongAdder> counts, String key, long delta) {
+        if (isBlank(key)) {
+            return;
+        }
+        counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    private static void addCity(SpaceSaving cities, String city, long delta) {
+        if (delta > 0) {
+            cities.offer(city, delta);
+        } else {
+            cities.remove(city, -delta);
+        }
+    }
+
+    private static Map<String, Long> toCounts(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            if (!isBlank((String) row[0])) {
+                counts.merge((String) row[0], (Long) row[1], Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static long get(Map<String, LongAdder> counts, String key) {
+        LongAdder counter = counts.get(key);
+        return counter != null ? counter.sum() : 0L;
+    }
+
+    /**
+     * 复制当前计数，忽略已减为 0 的项
+     */
+    private static Map<String, Long> copy(Map<String, LongAdder> counts) {
+        Map<String, Long> result = new HashMap<>();
+        counts.forEach((key, counter) -> {
+            long value = counter.sum();
+            if (value > 0) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 月份键，格式 yyyy-MM
+     */
+    private static String monthKey(LocalDateTime createdAt) {
+        return createdAt != null ? YearMonth.from(createdAt).toString() : null;
+    }
+
+    private static boolean isBlank(String str) {
+        return str == null || str.isEmpty();
+    }
+}
@@ -4,13 +4,14 @@ import com.example.demo.dto.BatchResult;
 import com.example.demo.dto.RoutePlanResponse.TrackPoint;
 import com.example.demo.entity.OperationLog;
 import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
 import com.example.demo.repository.OperationLogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -43,13 +44,16 @@ public class OrderStatusService {
 
     private final OrderService orderService;
     private final OperationLogRepository operationLogRepository;
-    private final ExpressCompanyService expressCompanyService;
+    private final TrackingNoAllocator trackingNoAllocator;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderStatusService(OrderService orderService, OperationLogRepository operationLogRepository,
-                             ExpressCompanyService expressCompanyService) {
+                             TrackingNoAllocator trackingNoAllocator,
+                             ApplicationEventPublisher eventPublisher) {
         this.orderService = orderService;
         this.operationLogRepository = operationLogRepository;
-        this.expressCompanyService = expressCompanyService;
+        this.trackingNoAllocator = trackingNoAllocator;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -95,7 +99,7 @@ public class OrderStatusService {
 
         order.setStatus(STATUS_SHIPPING);
         order.setShipTime(LocalDateTime.now());
-        order.setTrackingNo(generateTrackingNo(order.getExpressCompany()));
+        order.setTrackingNo(trackingNoAllocator.next(order.getExpressCompany()));
         order.setTrackPointsJson(orderService.serializeTrackPoints(trackPoints));
         order.setDuration(duration);
 
@@ -104,29 +108,13 @@ public class OrderStatusService {
 
         // 记录操作日志
         saveOperationLog(orderNo, ACTION_SHIP, fromStatus, STATUS_SHIPPING);
+        eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, fromStatus));
 
         log.info("订单 {} 发货成功，运单号 {}，状态从 {} 变更为 {}", 
             orderNo, order.getTrackingNo(), fromStatus, STATUS_SHIPPING);
         return order;
     }
 
-    /**
-     * 生成运单号
-     * 格式：快递公司前缀 + 日期 + 随机数
-     */
-    private String generateTrackingNo(String expressCompany) {
-        String prefix = "YD";
-        if (expressCompany != null) {
-            com.example.demo.entity.ExpressCompany company = expressCompanyService.getByCode(expressCompany);
-            if (company != null) {
-                prefix = company.getTrackingPrefix();
-            }
-        }
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = String.format("%04d", new Random().nextInt(10000));
-        return prefix + date + random;
-    }
-
     /**
      * 签收操作：shipping -> completed
      * @param orderNo 订单号
@@ -157,6 +145,7 @@ public class OrderStatusService {
 
         // 记录操作日志
         saveOperationLog(orderNo, ACTION_RECEIVE, fromStatus, STATUS_COMPLETED);
+        eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, fromStatus));
 
         log.info("订单 {} 签收成功，状态从 {} 变更为 {}", orderNo, fromStatus, STATUS_COMPLETED);
         return order;
@@ -201,6 +190,7 @@ public class OrderStatusService {
 
         // 记录操作日志
         saveOperationLog(orderNo, ACTION_CANCEL, fromStatus, STATUS_CANCELLED);
+        eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, fromStatus));
 
         log.info("订单 {} 取消成功，状态从 {} 变更为 {}", orderNo, fromStatus, STATUS_CANCELLED);
         return order;
@@ -258,10 +248,10 @@ public class OrderStatusService {
     }
 
     /**
-     * 获取订单，如果不存在则抛出异常
+     * 从数据库获取订单（不经订单缓存，状态校验和保存都基于最新值），如果不存在则抛出异常
      */
     private Order getOrderOrThrow(String orderNo) {
-        Order order = orderService.getOrder(orderNo);
+        Order order = orderService.getOrderForUpdate(orderNo);
         if (order == null) {
             throw new IllegalArgumentException(String.format("订单 %s 不存在", orderNo));
         }
@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 买家 / 卖家订单状态计数缓存
+ * 未命中时按手机号索引执行一次 GROUP BY status 查询，之后由订单创建、状态变更、删除事件在事务提交后增量维护。
+ * 加载期间有订单变更未完成或已完成时（查询结果是否包含该变更无法确定），本次结果只返回不写入缓存，
+ * 与 OrderCache 的失效版本检查相同；持续写入期间缓存可能一直未命中，退化为每次查询数据库。
+ */
+@Service
+public class PhoneOrderStatsCache {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    // "sender:手机号" / "receiver:手机号" -> 状态 -> 订单数
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    // 每个订单变更事务结束（提交或回滚）时递增，加载期间发生变化则不写入缓存
+    private final AtomicLong completions = new AtomicLong();
+
+    // 已发布但事务尚未结束的订单变更数，由 this 锁保护
+    private long inFlight;
+
+    @Value("${app.orders.phone-stats-ttl-ms:600000}")
+    private long ttlMillis;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    /**
+     * 获取手机号各状态订单数
+     * @param type "sender" 按发货人手机号，其他按收货人手机号
+     */
+    public Map<String, Long> countByStatus(String phone, String type) {
+        boolean sender = "sender".equals(type);
+        String key = key(sender, phone);
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(key);
+        if (entry == null || entry.expiresAt <= now) {
+            if (cache.size() >= MAX_ENTRIES) {
+                cache.values().removeIf(e -> e.expiresAt <= now);
+                if (cache.size() >= MAX_ENTRIES) {
+                    cache.clear();
+                }
+            }
+            long version = completions.get();
+            entry = load(sender, phone, now);
+            synchronized (this) {
+                if (inFlight == 0 && completions.get() == version) {
+                    cache.put(key, entry);
+                }
+            }
+        }
+        Map<String, Long> result = new HashMap<>();
+        entry.counts.forEach((status, count) -> result.put(status, count.sum()));
+        return result;
+    }
+
+    /**
+     * 订单变更发布时登记为进行中，事务提交后更新已缓存手机号的计数，事务结束后递增版本；
+     * 修改事件不涉及手机号和状态，忽略
+     */
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getType() == OrderChangedEvent.Type.UPDATED) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(event);
+            completions.incrementAndGet();
+            return;
+        }
+        synchronized (this) {
+            inFlight++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(event);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                completions.incrementAndGet();
+                synchronized (PhoneOrderStatsCache.this) {
+                    inFlight--;
+                }
+            }
+        });
+    }
+
+    private void apply(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        switch (event.getType()) {
+            case CREATED -> apply(order, order.getStatus(), 1);
+            case DELETED -> apply(order, order.getStatus(), -1);
+            case STATUS_CHANGED -> {
+                apply(order, event.getFromStatus(), -1);
+                apply(order, order.getStatus(), 1);
+            }
+            default -> { }
+        }
+    }
+
+    private void apply(Order order, String status, long delta) {
+        if (status == null) {
+            return;
+        }
+        for (String key : List.of(key(true, order.getSenderPhone()), key(false, order.getReceiverPhone()))) {
+            Entry entry = cache.get(key);
+            if (entry != null) {
+                entry.counts.computeIfAbsent(status, s -> new LongAdder()).add(delta);
+            }
+        }
+    }
+
+    private Entry load(boolean sender, String phone, long now) {
+        List<Object[]> rows = sender
+            ? orderRepository.countBySenderPhoneGroupByStatus(phone)
+            : orderRepository.countByReceiverPhoneGroupByStatus(phone);
+        Entry entry = new Entry(now + ttlMillis);
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                entry.counts.computeIfAbsent((String) row[0], s -> new LongAdder()).add((Long) row[1]);
+            }
+        }
+        return entry;
+    }
+
+    private static String key(boolean sender, String phone) {
+        return (sender ? "sender:" : "receiver:") + phone;
+    }
+
+    private static final class Entry {
+        private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+        private final long expiresAt;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Order;
+import com.example.demo.event.OrderChangedEvent;
+import com.example.demo.util.AddressUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 行政区下钻统计立方体（省 -> 市 -> 区县）
+ * 发货地、收货地各一棵树，每个节点按 "状态|快递公司" 维护订单数；
+ * 地址只在写入时解析一次，下钻查询只读取所请求层级父节点的直接子节点。
+ * 启动时从订单列式快照初始化，之后由订单变更事件增量维护。
+ */
+@Service
+@DependsOn("orderColumnStore")
+public class RegionCube {
+
+    private static final Logger log = LoggerFactory.getLogger(RegionCube.class);
+
+    private final Node originRoot = new Node();
+    private final Node destinationRoot = new Node();
+
+    @Autowired
+    private OrderColumnStore columnStore;
+
+    @PostConstruct
+    public void init() {
+        // 同一行政区字符串只拆分一次
+        Map<String, String[]> parsed = new HashMap<>();
+        columnStore.forEachRegion((status, expressCompany, originRegion, destinationRegion) -> {
+            String key = key(status, expressCompany);
+            if (originRegion != null) {
+                add(originRoot, parsed.computeIfAbsent(originRegion, r -> r.split("/")), key, 1);
+            }
+            if (destinationRegion != null) {
+                add(destinationRoot, parsed.computeIfAbsent(destinationRegion, r -> r.split("/")), key, 1);
+            }
+        });
+        log.info("行政区统计初始化完成，发货省份 {} 个，收货省份 {} 个",
+            originRoot.children.size(), destinationRoot.children.size());
+    }
+
+    /**
+     * 订单变更提交后更新计数
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        switch (event.getType()) {
+            case CREATED -> apply(order, key(order.getStatus(), order.getExpressCompany()), 1);
+            case DELETED -> apply(order, key(order.getStatus(), order.getExpressCompany()), -1);
+            case STATUS_CHANGED -> {
+                apply(order, key(event.getFromStatus(), order.getExpressCompany()), -1);
+                apply(order, key(order.getStatus(), order.getExpressCompany()), 1);
+            }
+        }
+    }
+
+    /**
+     * 下钻查询
+     * @param type "origin" 发货地 或 "destination" 收货地
+     * @param province 为空时返回各省；不为空时返回该省下各市
+     * @param city 不为空时返回该市下各区县（需同时指定 province）
+     * @param status 状态过滤，为空不过滤
+     * @param expressCompany 快递公司代码过滤，为空不过滤
+     * @return 下一级行政区 -> 订单数，按订单数降序
+     */
+    public Map<String, Long> drillDown(String type, String province, String city,
+                                       String status, String expressCompany) {
+        Node parent = "origin".equals(type) ? originRoot : destinationRoot;
+        for (String name : isBlank(province) ? List.<String>of()
+                : isBlank(city) ? List.of(province) : List.of(province, city)) {
+            parent = parent.children.get(name);
+            if (parent == null) {
+                return Map.of();
+            }
+        }
+        Map<String, Long> result = new HashMap<>();
+        parent.children.forEach((name, child) -> {
+            long count = child.count(status, expressCompany);
+            if (count > 0) {
+                result.put(name, count);
+            }
+        });
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        result.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    private void apply(Order order, String key, long delta) {
+        if (!isBlank(order.getOrigin())) {
+            add(originRoot, AddressUtil.parseRegion(order.getOrigin()), key, delta);
+        }
+        if (!isBlank(order.getDestination())) {
+            add(destinationRoot, AddressUtil.parseRegion(order.getDestination()), key, delta);
+        }
+    }
+
+    private static void add(Node root, String[] region, String key, long delta) {
+        Node node = root;
+        for (String name : region) {
+            node = node.children.computeIfAbsent(name, n -> new Node());
+            node.counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static String key(String status, String expressCompany) {
+        return (status != null ? status : "") + "|" + (expressCompany != null ? expressCompany : "");
+    }
+
+    private static boolean isBlank(String str) {
+        return str == null || str.isEmpty();
+    }
+
+    /**
+     * 立方体节点：子节点 + 按 "状态|快递公司" 的计数
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+        private long count(String status, String expressCompany) {
+            long sum = 0;
+            for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+                String key = entry.getKey();
+                int sep = key.indexOf('|');
+                if ((isBlank(status) || key.substring(0, sep).equals(status))
+                        && (isBlank(expressCompany) || key.substring(sep + 1).equals(expressCompany))) {
+                    sum += entry.getValue().sum();
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -90,7 +90,7 @@ public class StationStatusService {
      * @return 更新后的站点信息
      */
     public StationInfo markStationArrived(String orderNo, int stationIndex) {
-        Order order = orderService.getOrder(orderNo);
+        Order order = orderService.getOrderForUpdate(orderNo);
         if (order == null) {
             throw new IllegalArgumentException("订单不存在");
         }
@@ -146,7 +146,7 @@ public class StationStatusService {
      * @return 标记到达的站点数量
      */
     public int markAllStationsArrived(String orderNo) {
-        Order order = orderService.getOrder(orderNo);
+        Order order = orderService.getOrderForUpdate(orderNo);
         if (order == null) {
             throw new IllegalArgumentException("订单不存在");
         }
@@ -186,7 +186,7 @@ public class StationStatusService {
      * @return 标记到达的站点数量
      */
     public int markStationsArrivedTo(String orderNo, int targetIndex) {
-        Order order = orderService.getOrder(orderNo);
+        Order order = orderService.getOrderForUpdate(orderNo);
         if (order == null) {
             throw new IllegalArgumentException("订单不存在");
         }
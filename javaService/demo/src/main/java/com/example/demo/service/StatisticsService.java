@@ -1,90 +1,104 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ActiveUserStatistics;
+import com.example.demo.dto.CargoStatistics;
+import com.example.demo.dto.DashboardData;
 import com.example.demo.dto.DistributionData;
+import com.example.demo.dto.LeadTimeStatistics;
 import com.example.demo.dto.StatisticsOverview;
 import com.example.demo.dto.TrendData;
-import com.example.demo.entity.Order;
-import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.OrderDailyStatRepository;
+import com.example.demo.util.HyperLogLog;
+import com.example.demo.util.LogHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class StatisticsService {
 
     private static final Logger log = LoggerFactory.getLogger(StatisticsService.class);
 
+    // 趋势最多返回的天数
+    @Value("${app.statistics.max-trend-days:366}")
+    private int maxTrendDays;
+
+    @Autowired
+    private OrderDailyStatRepository dailyStatRepository;
+
+    @Autowired
+    private OrderStatisticsRegistry statisticsRegistry;
+
+    @Autowired
+    private OrderColumnStore columnStore;
+
+    @Autowired
+    private DistinctPhoneCounter distinctPhoneCounter;
+
+    @Autowired
+    private LeadTimeSketches leadTimeSketches;
+
+    @Autowired
+    private RegionCube regionCube;
+
     @Autowired
-    private OrderRepository orderRepository;
+    private ExpressCompanyService expressCompanyService;
+
+    /**
+     * 获取仪表盘数据
+     * 概览、状态分布、热门城市和快递公司统计取自同一份计数快照，趋势取自日汇总表
+     * @param days 趋势天数（见 getTrend）
+     * @param limit 热门城市数量
+     */
+    public DashboardData getDashboard(int days, int limit) {
+        OrderStatisticsRegistry.Snapshot snapshot = statisticsRegistry.snapshot(limit);
+        return new DashboardData(
+            buildOverview(snapshot),
+            getTrend(days),
+            buildStatusDistribution(snapshot),
+            buildTopCities(snapshot, "origin"),
+            buildTopCities(snapshot, "destination"),
+            buildExpressCompanies(snapshot));
+    }
 
     /**
      * 获取统计概览
      */
     public StatisticsOverview getOverview() {
-        List<Order> orders = orderRepository.findAll();
-        
-        long totalOrders = orders.size();
-        long pendingOrders = orders.stream()
-            .filter(o -> "pending".equals(o.getStatus()))
-            .count();
-        long completedOrders = orders.stream()
-            .filter(o -> "completed".equals(o.getStatus()))
-            .count();
-        
-        // 计算完成率
-        double completionRate = totalOrders > 0 
-            ? Math.round(completedOrders * 10000.0 / totalOrders) / 100.0 
-            : 0.0;
-        
-        // 计算本月订单数
-        YearMonth currentMonth = YearMonth.now();
-        long monthOrders = orders.stream()
-            .filter(o -> isInMonth(o.getCreateTime(), currentMonth))
-            .count();
-        
-        // 计算上月订单数（用于环比）
-        YearMonth lastMonth = currentMonth.minusMonths(1);
-        long lastMonthOrders = orders.stream()
-            .filter(o -> isInMonth(o.getCreateTime(), lastMonth))
-            .count();
-        
-        // 计算月环比增长率
-        double monthGrowth = lastMonthOrders > 0 
-            ? Math.round((monthOrders - lastMonthOrders) * 10000.0 / lastMonthOrders) / 100.0 
-            : (monthOrders > 0 ? 100.0 : 0.0);
-        
-        return new StatisticsOverview(totalOrders, monthOrders, pendingOrders, completionRate, monthGrowth);
+        return buildOverview(statisticsRegistry.current(0));
     }
 
     /**
      * 获取订单趋势
+     * @param days 最近天数，限制在 [1, max-trend-days] 内
      */
     public TrendData getTrend(int days) {
-        List<Order> orders = orderRepository.findAll();
+        days = clampDays(days, maxTrendDays);
         LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(days - 1);
+        
+        // 读取日汇总表，每天只有少量汇总行
+        Map<LocalDate, Long> countByDate = new HashMap<>();
+        for (Object[] row : dailyStatRepository.sumGroupByDate(start, today)) {
+            countByDate.put((LocalDate) row[0], (Long) row[1]);
+        }
         
         List<String> dates = new ArrayList<>();
         List<Long> counts = new ArrayList<>();
         
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
+        for (LocalDate date = start; !date.isAfter(today); date = date.plusDays(1)) {
             String dateStr = date.format(formatter);
             dates.add(dateStr);
-            
-            long count = orders.stream()
-                .filter(o -> isOnDate(o.getCreateTime(), date))
-                .count();
-            counts.add(count);
+            counts.add(countByDate.getOrDefault(date, 0L));
         }
         
         return new TrendData(dates, counts);
@@ -94,143 +108,209 @@ public class StatisticsService {
      * 获取状态分布
      */
     public Map<String, Long> getStatusDistribution() {
-        List<Order> orders = orderRepository.findAll();
-        
-        Map<String, Long> distribution = new LinkedHashMap<>();
-        distribution.put("pending", orders.stream().filter(o -> "pending".equals(o.getStatus())).count());
-        distribution.put("shipping", orders.stream().filter(o -> "shipping".equals(o.getStatus())).count());
-        distribution.put("completed", orders.stream().filter(o -> "completed".equals(o.getStatus())).count());
-        distribution.put("cancelled", orders.stream().filter(o -> "cancelled".equals(o.getStatus())).count());
-        
-        return distribution;
+        return buildStatusDistribution(statisticsRegistry.current(0));
     }
 
 
     /**
      * 获取热门城市
+     * 计数来自 Space-Saving 近似统计，每个城市的计数最多高估 总订单数/监控容量
      * @param type "origin" 发货城市 或 "destination" 收货城市
      * @param limit 返回数量限制
      */
     public DistributionData getTopCities(String type, int limit) {
-        List<Order> orders = orderRepository.findAll();
-        
-        Map<String, Long> cityCount;
-        if ("origin".equals(type)) {
-            cityCount = orders.stream()
-                .filter(o -> o.getOrigin() != null && !o.getOrigin().isEmpty())
-                .collect(Collectors.groupingBy(
-                    o -> extractCity(o.getOrigin()),
-                    Collectors.counting()
-                ));
-        } else {
-            cityCount = orders.stream()
-                .filter(o -> o.getDestination() != null && !o.getDestination().isEmpty())
-                .collect(Collectors.groupingBy(
-                    o -> extractCity(o.getDestination()),
-                    Collectors.counting()
-                ));
-        }
-        
-        // 按数量降序排列，取前limit个
-        List<Map.Entry<String, Long>> sorted = cityCount.entrySet().stream()
-            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-            .limit(limit)
-            .toList();
-        
-        List<String> cities = sorted.stream().map(Map.Entry::getKey).toList();
-        List<Long> counts = sorted.stream().map(Map.Entry::getValue).toList();
-        
-        return new DistributionData(cities, counts);
+        return buildTopCities(statisticsRegistry.current(limit), type);
     }
 
-    // 快递公司名称映射
-    private static final Map<String, String> EXPRESS_COMPANY_NAMES = Map.ofEntries(
-        Map.entry("sf", "顺丰速运"),
-        Map.entry("yd", "韵达快递"),
-        Map.entry("yto", "圆通速递"),
-        Map.entry("yt", "圆通速递"),
-        Map.entry("zto", "中通快递"),
-        Map.entry("zt", "中通快递"),
-        Map.entry("sto", "申通快递"),
-        Map.entry("st", "申通快递"),
-        Map.entry("jd", "京东物流"),
-        Map.entry("ems", "EMS"),
-        Map.entry("db", "德邦快递"),
-        Map.entry("yunda", "韵达快递")
-    );
-
     /**
      * 获取快递公司统计
      */
     public DistributionData getExpressCompanies() {
-        List<Order> orders = orderRepository.findAll();
+        return buildExpressCompanies(statisticsRegistry.current(0));
+    }
+
+    /**
+     * 获取货物类型统计
+     * 在内存列式快照上计算，不查询订单表
+     * @param days 最近天数，小于等于 0 表示全部订单
+     */
+    public CargoStatistics getCargoStatistics(int days) {
+        LocalDateTime from = days > 0 ? LocalDate.now().minusDays(days - 1).atStartOfDay() : null;
+        Map<String, OrderColumnStore.CargoTotals> totals = columnStore.sumByCargoType(from, null);
         
-        Map<String, Long> companyCount = orders.stream()
-            .filter(o -> o.getExpressCompany() != null && !o.getExpressCompany().isEmpty())
-            .collect(Collectors.groupingBy(
-                Order::getExpressCompany,
-                Collectors.counting()
-            ));
+        List<String> labels = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        List<Double> volumes = new ArrayList<>();
+        totals.forEach((cargoType, total) -> {
+            labels.add(cargoType);
+            counts.add(total.getCount());
+            weights.add(Math.round(total.getWeight() * 100) / 100.0);
+            volumes.add(Math.round(total.getVolume() * 1000) / 1000.0);
+        });
         
-        // 按数量降序排列
-        List<Map.Entry<String, Long>> sorted = companyCount.entrySet().stream()
-            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-            .toList();
+        return new CargoStatistics(labels, counts, weights, volumes);
+    }
+
+    /**
+     * 获取活跃寄件人 / 收件人统计
+     * 按手机号去重的 HyperLogLog 近似值，相对误差约 0.8%
+     * @param days 最近天数，限制在 [1, 草图保留天数] 内
+     */
+    public ActiveUserStatistics getActiveUsers(int days) {
+        days = clampDays(days, distinctPhoneCounter.getRetentionDays());
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(days - 1);
         
-        // 将快递公司代码转换为中文名称
-        List<String> companies = sorted.stream()
-            .map(e -> EXPRESS_COMPANY_NAMES.getOrDefault(e.getKey(), e.getKey()))
-            .toList();
-        List<Long> counts = sorted.stream().map(Map.Entry::getValue).toList();
+        List<String> dates = new ArrayList<>();
+        List<Long> senders = new ArrayList<>();
+        List<Long> receivers = new ArrayList<>();
         
-        return new DistributionData(companies, counts);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        
+        for (LocalDate date = start; !date.isAfter(today); date = date.plusDays(1)) {
+            dates.add(date.format(formatter));
+            senders.add(distinctPhoneCounter.countSenders(date, date));
+            receivers.add(distinctPhoneCounter.countReceivers(date, date));
+        }
+        
+        return new ActiveUserStatistics(dates, senders, receivers,
+            distinctPhoneCounter.countSenders(start, today),
+            distinctPhoneCounter.countReceivers(start, today),
+            HyperLogLog.RELATIVE_ERROR);
     }
 
-    // ==================== 辅助方法 ====================
-
     /**
-     * 判断订单创建时间是否在指定月份
+     * 获取行政区下钻分布
+     * 未指定 province 时按省统计，指定 province 时按市统计，再指定 city 时按区县统计
+     * @param type "origin" 发货地 或 "destination" 收货地
+     * @param status 状态过滤，可为空
+     * @param expressCompany 快递公司代码过滤，可为空
      */
-    private boolean isInMonth(String createTime, YearMonth month) {
-        if (createTime == null || createTime.isEmpty()) {
-            return false;
-        }
-        try {
-            LocalDateTime dateTime = LocalDateTime.parse(createTime, 
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            return YearMonth.from(dateTime).equals(month);
-        } catch (Exception e) {
-            return false;
-        }
+    public DistributionData getRegionDistribution(String type, String province, String city,
+                                                  String status, String expressCompany) {
+        Map<String, Long> regions = regionCube.drillDown(type, province, city, status, expressCompany);
+        
+        List<String> labels = new ArrayList<>(regions.keySet());
+        List<Long> counts = new ArrayList<>(regions.values());
+        
+        return new DistributionData(labels, counts);
     }
 
     /**
-     * 判断订单创建时间是否在指定日期
+     * 获取配送时长分位数（发货到签收）
+     * 合并各快递公司按签收日期维护的直方图，分位数相对误差不超过 1%
+     * @param days 最近天数（按签收日期），限制在 [1, 直方图保留天数] 内
      */
-    private boolean isOnDate(String createTime, LocalDate date) {
-        if (createTime == null || createTime.isEmpty()) {
-            return false;
-        }
-        try {
-            LocalDateTime dateTime = LocalDateTime.parse(createTime, 
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            return dateTime.toLocalDate().equals(date);
-        } catch (Exception e) {
-            return false;
+    public LeadTimeStatistics getLeadTimes(int days) {
+        days = clampDays(days, leadTimeSketches.getRetentionDays());
+        LocalDate today = LocalDate.now();
+        Map<String, LogHistogram> byCompany = leadTimeSketches.mergeByCompany(today.minusDays(days - 1), today);
+        
+        // 按已签收订单数降序，第一项为全部公司合计
+        List<Map.Entry<String, LogHistogram>> sorted = new ArrayList<>(byCompany.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue().getCount(), a.getValue().getCount()));
+        LogHistogram all = new LogHistogram();
+        byCompany.values().forEach(all::merge);
+        
+        List<String> labels = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        List<Double> p50 = new ArrayList<>();
+        List<Double> p95 = new ArrayList<>();
+        List<Double> p99 = new ArrayList<>();
+        List<Map.Entry<String, LogHistogram>> rows = new ArrayList<>();
+        rows.add(Map.entry("全部", all));
+        rows.addAll(sorted);
+        for (Map.Entry<String, LogHistogram> row : rows) {
+            LogHistogram histogram = row.getValue();
+            labels.add(expressCompanyService.getName(row.getKey()));
+            counts.add(histogram.getCount());
+            p50.add(toHours(histogram.quantile(0.50)));
+            p95.add(toHours(histogram.quantile(0.95)));
+            p99.add(toHours(histogram.quantile(0.99)));
         }
+        
+        return new LeadTimeStatistics(labels, counts, p50, p95, p99, LogHistogram.RELATIVE_ACCURACY);
     }
 
     /**
-     * 从地址中提取城市名
+     * 按天循环的统计限制天数，超出保留期的日期没有数据，也避免超大参数逐日构造结果
      */
-    private String extractCity(String address) {
-        if (address == null || address.isEmpty()) {
-            return "未知";
-        }
-        if (address.contains("市")) {
-            int idx = address.indexOf("市");
-            return address.substring(0, Math.min(idx + 1, address.length()));
-        }
-        return address.substring(0, Math.min(4, address.length()));
+    private static int clampDays(int days, int maxDays) {
+        return Math.max(1, Math.min(days, maxDays));
+    }
+
+    private static double toHours(long seconds) {
+        return Math.round(seconds / 36.0) / 100.0;
+    }
+
+    // ==================== 基于快照的计算 ====================
+
+    private StatisticsOverview buildOverview(OrderStatisticsRegistry.Snapshot snapshot) {
+        long totalOrders = snapshot.getTotal();
+        long pendingOrders = snapshot.getStatusCount("pending");
+        long completedOrders = snapshot.getStatusCount("completed");
+        
+        // 计算完成率
+        double completionRate = totalOrders > 0 
+            ? Math.round(completedOrders * 10000.0 / totalOrders) / 100.0 
+            : 0.0;
+        
+        // 本月及上月订单数（用于环比）
+        long monthOrders = snapshot.getMonthCount();
+        long lastMonthOrders = snapshot.getLastMonthCount();
+        
+        // 计算月环比增长率
+        double monthGrowth = lastMonthOrders > 0 
+            ? Math.round((monthOrders - lastMonthOrders) * 10000.0 / lastMonthOrders) / 100.0 
+            : (monthOrders > 0 ? 100.0 : 0.0);
+        
+        StatisticsOverview overview = new StatisticsOverview(totalOrders, monthOrders, pendingOrders, completionRate, monthGrowth);
+        
+        // 去重寄件人 / 收件人（HyperLogLog 近似值）
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        overview.setTodaySenders(distinctPhoneCounter.countSenders(today, today));
+        overview.setTodayReceivers(distinctPhoneCounter.countReceivers(today, today));
+        overview.setMonthSenders(distinctPhoneCounter.countSenders(monthStart, today));
+        overview.setMonthReceivers(distinctPhoneCounter.countReceivers(monthStart, today));
+        
+        return overview;
+    }
+
+    private Map<String, Long> buildStatusDistribution(OrderStatisticsRegistry.Snapshot snapshot) {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        distribution.put("pending", snapshot.getStatusCount("pending"));
+        distribution.put("shipping", snapshot.getStatusCount("shipping"));
+        distribution.put("completed", snapshot.getStatusCount("completed"));
+        distribution.put("cancelled", snapshot.getStatusCount("cancelled"));
+        
+        return distribution;
+    }
+
+    private DistributionData buildTopCities(OrderStatisticsRegistry.Snapshot snapshot, String type) {
+        Map<String, Long> topCities = snapshot.getTopCities(type);
+        
+        List<String> cities = new ArrayList<>(topCities.keySet());
+        List<Long> counts = new ArrayList<>(topCities.values());
+        
+        return new DistributionData(cities, counts);
+    }
+
+    private DistributionData buildExpressCompanies(OrderStatisticsRegistry.Snapshot snapshot) {
+        Map<String, Long> companyCount = snapshot.getExpressCompanyCounts();
+        
+        // 按数量降序排列
+        List<Map.Entry<String, Long>> sorted = companyCount.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .toList();
+        
+        // 将快递公司代码转换为中文名称
+        List<String> companies = sorted.stream()
+            .map(e -> expressCompanyService.getName(e.getKey()))
+            .toList();
+        List<Long> counts = sorted.stream().map(Map.Entry::getValue).toList();
+        
+        return new DistributionData(companies, counts);
     }
 }
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExpressCompany;
+import com.example.demo.entity.TrackingNoSequence;
+import com.example.demo.repository.TrackingNoSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 运单号分配器
+ * 格式：快递公司运单号前缀 + 12 位序号，例如 SF000000012345。
+ * 每个前缀在 tracking_no_sequences 表中有一个序列，按号段（hi/lo）整段领取，
+ * 号段内用 AtomicLong 无锁分配，号段用完才在独立事务中加行锁领取下一段；
+ * 多实例各自领取不相交的号段，重启时未用完的号段直接丢弃。
+ */
+@Service
+public class TrackingNoAllocator {
+
+    private static final String DEFAULT_PREFIX = "YD";
+    private static final int SEQUENCE_DIGITS = 12;
+
+    // 前缀 -> 当前号段
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Value("${app.tracking-no.block-size:1000}")
+    private int blockSize;
+
+    @Autowired
+    private ExpressCompanyService expressCompanyService;
+
+    @Autowired
+    private TrackingNoSequenceRepository sequenceRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public TrackingNoAllocator(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 为快递公司分配下一个运单号，未知快递公司使用默认前缀
+     */
+    public String next(String expressCompany) {
+        ExpressCompany company = expressCompanyService.getByCode(expressCompany);
+        String prefix = company != null && company.getTrackingPrefix() != null && !company.getTrackingPrefix().isEmpty()
+            ? company.getTrackingPrefix() : DEFAULT_PREFIX;
+        return prefix + pad(nextValue(prefix));
+    }
+
+    private long nextValue(String prefix) {
+        while (true) {
+            Block block = blocks.get(prefix);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            synchronized (this) {
+                // 其他线程可能已换上新号段
+                if (blocks.get(prefix) == block) {
+                    blocks.put(prefix, allocate(prefix));
+                }
+            }
+        }
+    }
+
+    /**
+     * 在独立事务中领取一个号段，首次使用的前缀并发插入冲突时重试
+     */
+    private Block allocate(String prefix) {
+        try {
+            return transactionTemplate.execute(status -> reserve(prefix));
+        } catch (DataIntegrityViolationException e) {
+            return transactionTemplate.execute(status -> reserve(prefix));
+        }
+    }
+
+    private Block reserve(String prefix) {
+        TrackingNoSequence sequence = sequenceRepository.findForUpdate(prefix)
+            .orElseGet(() -> sequenceRepository.saveAndFlush(new TrackingNoSequence(prefix)));
+        long start = sequence.getNextValue();
+        sequence.setNextValue(start + blockSize);
+        sequence.setUpdateTime(LocalDateTime.now());
+        sequenceRepository.save(sequence);
+        return new Block(start, start + blockSize);
+    }
+
+    private static String pad(long value) {
+        String digits = Long.toString(value);
+        if (digits.length() >= SEQUENCE_DIGITS) {
+            return digits;
+        }
+        return "0".repeat(SEQUENCE_DIGITS - digits.length()) + digits;
+    }
+
+    /**
+     * 号段 [next, end)
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
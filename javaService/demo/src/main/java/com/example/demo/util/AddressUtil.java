@@ -0,0 +1,89 @@
+package com.example.demo.util;
+
+/**
+ * 地址工具类
+ */
+public final class AddressUtil {
+
+    private static final String UNKNOWN = "未知";
+    private static final String[] MUNICIPALITIES = {"北京", "上海", "天津", "重庆"};
+    private static final String[] PROVINCE_SUFFIXES = {"特别行政区", "自治区", "省"};
+    private static final String[] CITY_SUFFIXES = {"自治州", "地区", "盟", "市"};
+    private static final String[] DISTRICT_SUFFIXES = {"区", "县", "旗", "市"};
+
+    private AddressUtil() {}
+
+    /**
+     * 从地址中提取城市名
+     */
+    public static String extractCity(String address) {
+        if (address == null || address.isEmpty()) {
+            return "未知";
+        }
+        if (address.contains("市")) {
+            int idx = address.indexOf("市");
+            return address.substring(0, Math.min(idx + 1, address.length()));
+        }
+        return address.substring(0, Math.min(4, address.length()));
+    }
+
+    /**
+     * 解析省、市、区县三级行政区，缺失的级别为"未知"
+     * 直辖市的省级和市级相同，如"北京市朝阳区" -> [北京市, 北京市, 朝阳区]
+     * @return 长度为 3 的数组：省、市、区县
+     */
+    public static String[] parseRegion(String address) {
+        String[] region = {UNKNOWN, UNKNOWN, UNKNOWN};
+        if (address == null || address.isBlank()) {
+            return region;
+        }
+        String rest = address.trim();
+
+        // 省级
+        String municipality = null;
+        for (String name : MUNICIPALITIES) {
+            if (rest.startsWith(name)) {
+                municipality = name + "市";
+                rest = rest.substring(rest.startsWith(municipality) ? municipality.length() : name.length());
+                break;
+            }
+        }
+        if (municipality != null) {
+            region[0] = municipality;
+            region[1] = municipality;
+        } else {
+            int end = findSuffix(rest, PROVINCE_SUFFIXES);
+            if (end > 0) {
+                region[0] = rest.substring(0, end);
+                rest = rest.substring(end);
+            }
+            // 市级
+            end = findSuffix(rest, CITY_SUFFIXES);
+            if (end > 0) {
+                region[1] = rest.substring(0, end);
+                rest = rest.substring(end);
+            }
+        }
+
+        // 区县级
+        int end = findSuffix(rest, DISTRICT_SUFFIXES);
+        if (end > 0) {
+            region[2] = rest.substring(0, end);
+        }
+        return region;
+    }
+
+    /**
+     * 查找最先出现的后缀（不能出现在第一个字符），返回后缀结束位置，未找到返回 -1
+     */
+    private static int findSuffix(String text, String[] suffixes) {
+        int best = -1;
+        for (String suffix : suffixes) {
+            int idx = text.indexOf(suffix, 1);
+            if (idx > 0 && (best < 0 || idx + suffix.length() < best)) {
+                best = idx + suffix.length();
+            }
+        }
+        return best;
+    }
+}
@@ -2,16 +2,34 @@ package com.example.demo.util;
 
 import com.example.demo.dto.ImportError;
 import com.example.demo.entity.Order;
+import com.example.demo.service.ExpressCompanyService;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Excel 工具类
@@ -85,99 +103,35 @@ public class ExcelUtil {
     }
 
     /**
-     * 解析上传的 Excel 文件
-     * 支持导入模板格式和导出格式，根据表头自动识别
-     * @param file 上传的文件
-     * @return 解析后的订单列表
+     * 流式读取上传的 Excel 文件（SAX 事件模型，不构建整个工作簿）
+     * 支持导入模板格式和导出格式，根据表头自动识别；只读取第一个工作表，
+     * 每读满 chunkSize 行回调一次，内存中只保留当前批次；
+     * 共享字符串表写入临时文件按需读取（见 {@link TempFileSharedStrings}），不随文件大小整表载入堆内存
+     * @param file 已落盘的 .xlsx 文件
+     * @param chunkSize 每批行数
+     * @param handler 批次处理，回调返回后该批次不再被引用
      */
-    public List<Order> parseExcel(MultipartFile file) throws IOException {
-        List<Order> orders = new ArrayList<>();
-        
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            int lastRowNum = sheet.getLastRowNum();
-            
-            // 读取表头，建立列名到索引的映射
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                return orders;
+    public void readOrders(File file, int chunkSize, Consumer<List<ImportRow>> handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+             TempFileSharedStrings strings = new TempFileSharedStrings(pkg)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
             }
-            
-            java.util.Map<String, Integer> columnMap = new java.util.HashMap<>();
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                String header = getCellStringValue(headerRow.getCell(i));
-                if (header != null && !header.isEmpty()) {
-                    columnMap.put(header, i);
-                }
+            RowCollector collector = new RowCollector(chunkSize, handler);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                    strings, collector, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
             }
-            
-            // 从第二行开始读取（跳过表头）
-            for (int i = 1; i <= lastRowNum; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null || isRowEmpty(row)) {
-                    continue;
-                }
-                
-                Order order = new Order();
-                // 读取订单号（如果存在）
-                order.setOrderNo(getCellByHeader(row, columnMap, "订单号"));
-                order.setCargoName(getCellByHeader(row, columnMap, "货物名称"));
-                order.setCargoType(getCellByHeader(row, columnMap, "货物类型"));
-                order.setCargoWeight(getDoubleCellByHeader(row, columnMap, "重量(kg)"));
-                order.setCargoVolume(getDoubleCellByHeader(row, columnMap, "体积(m³)"));
-                order.setCargoQuantity(getIntCellByHeader(row, columnMap, "数量(件)"));
-                order.setSenderName(getCellByHeader(row, columnMap, "发货人"));
-                order.setSenderPhone(getCellByHeader(row, columnMap, "发货人电话"));
-                order.setOrigin(getCellByHeader(row, columnMap, "发货地址"));
-                order.setReceiverName(getCellByHeader(row, columnMap, "收货人"));
-                order.setReceiverPhone(getCellByHeader(row, columnMap, "收货人电话"));
-                order.setDestination(getCellByHeader(row, columnMap, "收货地址"));
-                order.setExpressCompany(getCellByHeader(row, columnMap, "快递公司"));
-                order.setRemark(getCellByHeader(row, columnMap, "备注"));
-                
-                orders.add(order);
-            }
-        }
-        
-        return orders;
-    }
-
-    /**
-     * 根据列名获取单元格字符串值
-     */
-    private String getCellByHeader(Row row, java.util.Map<String, Integer> columnMap, String header) {
-        Integer index = columnMap.get(header);
-        if (index == null) {
-            return null;
-        }
-        return getCellStringValue(row.getCell(index));
-    }
-
-    /**
-     * 根据列名获取单元格 Double 值
-     */
-    private Double getDoubleCellByHeader(Row row, java.util.Map<String, Integer> columnMap, String header) {
-        Integer index = columnMap.get(header);
-        if (index == null) {
-            return null;
-        }
-        return getCellDoubleValue(row.getCell(index));
-    }
-
-    /**
-     * 根据列名获取单元格 Integer 值
-     */
-    private Integer getIntCellByHeader(Row row, java.util.Map<String, Integer> columnMap, String header) {
-        Integer index = columnMap.get(header);
-        if (index == null) {
-            return null;
+            collector.flush();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Excel 文件解析失败", e);
         }
-        return getCellIntValue(row.getCell(index));
     }
 
-
     // 货物类型映射：内部代码 -> 中文名称
     private static final java.util.Map<String, String> CARGO_TYPE_MAP = java.util.Map.of(
         "normal", "普通货物",
@@ -187,20 +141,6 @@ public class ExcelUtil {
         "document", "文件"
     );
     
-    // 快递公司映射：内部代码 -> 中文名称
-    private static final java.util.Map<String, String> EXPRESS_COMPANY_MAP = java.util.Map.ofEntries(
-        java.util.Map.entry("sf", "顺丰速运"),
-        java.util.Map.entry("zto", "中通快递"),
-        java.util.Map.entry("yto", "圆通速递"),
-        java.util.Map.entry("yd", "韵达快递"),
-        java.util.Map.entry("sto", "申通快递"),
-        java.util.Map.entry("jd", "京东物流"),
-        java.util.Map.entry("ems", "邮政EMS"),
-        java.util.Map.entry("deppon", "德邦快递"),
-        java.util.Map.entry("jitu", "极兔速递"),
-        java.util.Map.entry("best", "百世快递")
-    );
-    
     // 状态映射：内部代码 -> 中文名称
     private static final java.util.Map<String, String> STATUS_MAP = java.util.Map.of(
         "pending", "待发货",
@@ -209,6 +149,9 @@ public class ExcelUtil {
         "cancelled", "已取消"
     );
 
+    @Autowired
+    private ExpressCompanyService expressCompanyService;
+
     /**
      * 将订单列表导出为 Excel
      * @param orders 订单列表
@@ -285,12 +228,8 @@ public class ExcelUtil {
         if (expressCompany == null || expressCompany.isEmpty()) {
             return "";
         }
-        // 如果已经是中文名称，直接返回
-        if (EXPRESS_COMPANY_MAP.containsValue(expressCompany)) {
-            return expressCompany;
-        }
-        // 转换内部代码为中文名称
-        return EXPRESS_COMPANY_MAP.getOrDefault(expressCompany, expressCompany);
+        // 转换内部代码为中文名称，已经是中文名称或未知代码时原样返回
+        return expressCompanyService.getName(expressCompany);
     }
 
     /**
@@ -363,101 +302,112 @@ public class ExcelUtil {
     }
 
     /**
-     * 判断行是否为空
+     * 导入文件中的一行
      */
-    private boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
-        }
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String value = getCellStringValue(cell);
-                if (value != null && !value.trim().isEmpty()) {
-                    return false;
-                }
-            }
+    public static class ImportRow {
+        private final int rowNum;     // Excel 行号（从 1 开始，含表头）
+        private final Order order;
+
+        public ImportRow(int rowNum, Order order) {
+            this.rowNum = rowNum;
+            this.order = order;
         }
-        return true;
+
+        public int getRowNum() { return rowNum; }
+        public Order getOrder() { return order; }
     }
 
     /**
-     * 获取单元格字符串值
+     * 工作表 SAX 事件处理：第一行作为表头，之后每行按表头映射为订单，攒满一批交给 handler
      */
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) {
-            return null;
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int chunkSize;
+        private final Consumer<List<ImportRow>> handler;
+        private final Map<Integer, String> headers = new HashMap<>();
+        private final Map<String, String> values = new HashMap<>();
+        private List<ImportRow> chunk = new ArrayList<>();
+        private int currentRow;
+        private int nextColumn;
+
+        private RowCollector(int chunkSize, Consumer<List<ImportRow>> handler) {
+            this.chunkSize = chunkSize;
+            this.handler = handler;
         }
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                // 处理数字类型，避免科学计数法
-                double numValue = cell.getNumericCellValue();
-                if (numValue == Math.floor(numValue)) {
-                    return String.valueOf((long) numValue);
-                }
-                return String.valueOf(numValue);
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (Exception e) {
-                    return String.valueOf(cell.getNumericCellValue());
-                }
-            default:
-                return null;
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow = rowNum;
+            nextColumn = 0;
+            values.clear();
         }
-    }
 
-    /**
-     * 获取单元格 Double 值
-     */
-    private Double getCellDoubleValue(Cell cell) {
-        if (cell == null) {
-            return null;
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            String value = formattedValue != null ? formattedValue.trim() : "";
+            if (value.isEmpty()) {
+                return;
+            }
+            if (currentRow == 0) {
+                headers.put(column, value);
+                return;
+            }
+            String header = headers.get(column);
+            if (header != null) {
+                values.put(header, value);
+            }
         }
-        switch (cell.getCellType()) {
-            case NUMERIC:
-                return cell.getNumericCellValue();
-            case STRING:
-                String value = cell.getStringCellValue().trim();
-                if (value.isEmpty()) {
-                    return null;
-                }
-                try {
-                    return Double.parseDouble(value);
-                } catch (NumberFormatException e) {
-                    return null;
-                }
-            default:
-                return null;
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || values.isEmpty()) {
+                return;
+            }
+            chunk.add(new ImportRow(rowNum + 1, toOrder(values)));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
         }
-    }
 
-    /**
-     * 获取单元格 Integer 值
-     */
-    private Integer getCellIntValue(Cell cell) {
-        if (cell == null) {
-            return null;
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                List<ImportRow> full = chunk;
+                chunk = new ArrayList<>();
+                handler.accept(full);
+            }
+        }
+
+        private static Order toOrder(Map<String, String> values) {
+            Order order = new Order();
+            // 读取订单号（如果存在）
+            order.setOrderNo(values.get("订单号"));
+            order.setCargoName(values.get("货物名称"));
+            order.setCargoType(values.get("货物类型"));
+            order.setCargoWeight(parseDouble(values.get("重量(kg)")));
+            order.setCargoVolume(parseDouble(values.get("体积(m³)")));
+            Double quantity = parseDouble(values.get("数量(件)"));
+            order.setCargoQuantity(quantity != null ? quantity.intValue() : null);
+            order.setSenderName(values.get("发货人"));
+            order.setSenderPhone(values.get("发货人电话"));
+            order.setOrigin(values.get("发货地址"));
+            order.setReceiverName(values.get("收货人"));
+            order.setReceiverPhone(values.get("收货人电话"));
+            order.setDestination(values.get("收货地址"));
+            order.setExpressCompany(values.get("快递公司"));
+            order.setRemark(values.get("备注"));
+            return order;
         }
-        switch (cell.getCellType()) {
-            case NUMERIC:
-                return (int) cell.getNumericCellValue();
-            case STRING:
-                String value = cell.getStringCellValue().trim();
-                if (value.isEmpty()) {
-                    return null;
-                }
-                try {
-                    return Integer.parseInt(value);
-                } catch (NumberFormatException e) {
-                    return null;
-                }
-            default:
+
+        private static Double parseDouble(String value) {
+            if (value == null) {
                 return null;
+            }
+            try {
+                return Double.parseDouble(value.replace(",", ""));
+            } catch (NumberFormatException e) {
+                return null;
+            }
         }
     }
 }
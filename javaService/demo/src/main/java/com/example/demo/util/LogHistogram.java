@@ -0,0 +1,115 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+
+/**
+ * 对数分桶直方图（DDSketch 分桶方式）
+ * 第 i 个桶覆盖 (γ^(i-1), γ^i]，γ = (1 + α) / (1 - α)，α = 1%；
+ * 分位数取所在桶的代表值 2γ^i / (γ + 1)，相对误差不超过 α。
+ * 只为实际出现过的桶区间分配计数数组，同参数的直方图可以逐桶相加合并，也支持按值扣减。
+ */
+public class LogHistogram {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long[] counts = new long[0];
+    private int minIndex;    // counts[0] 对应的桶下标
+    private long zeroCount;  // 小于等于 0 的值
+    private long total;
+
+    /**
+     * 记录一个值
+     */
+    public synchronized void record(long value) {
+        add(value, 1);
+    }
+
+    /**
+     * 扣减一个之前记录过的值
+     */
+    public synchronized void remove(long value) {
+        add(value, -1);
+    }
+
+    /**
+     * 合并另一个直方图
+     */
+    public synchronized void merge(LogHistogram other) {
+        long[] otherCounts;
+        int otherMinIndex;
+        long otherZeroCount;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherMinIndex = other.minIndex;
+            otherZeroCount = other.zeroCount;
+        }
+        zeroCount += otherZeroCount;
+        total += otherZeroCount;
+        for (int i = 0; i < otherCounts.length; i++) {
+            if (otherCounts[i] != 0) {
+                int index = otherMinIndex + i;
+                ensureIndex(index);
+                counts[index - minIndex] += otherCounts[i];
+                total += otherCounts[i];
+            }
+        }
+    }
+
+    /**
+     * 计算分位数
+     * @param quantile 0 ~ 1
+     * @return 近似值，没有数据时返回 0
+     */
+    public synchronized long quantile(double quantile) {
+        if (total <= 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(quantile * (total - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return Math.round(2 * Math.pow(GAMMA, minIndex + i) / (GAMMA + 1));
+            }
+        }
+        return Math.round(2 * Math.pow(GAMMA, minIndex + counts.length - 1) / (GAMMA + 1));
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+
+    private void add(long value, long delta) {
+        total += delta;
+        if (value <= 0) {
+            zeroCount += delta;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        ensureIndex(index);
+        counts[index - minIndex] += delta;
+    }
+
+    /**
+     * 扩展计数数组，使其覆盖 index
+     */
+    private void ensureIndex(int index) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            minIndex = index;
+        } else if (index < minIndex) {
+            long[] grown = new long[counts.length + (minIndex - index)];
+            System.arraycopy(counts, 0, grown, minIndex - index, counts.length);
+            counts = grown;
+            minIndex = index;
+        } else if (index >= minIndex + counts.length) {
+            counts = Arrays.copyOf(counts, index - minIndex + 1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单号生成器
+ * 格式：ORD + yyyyMMddHHmmss + 2 位节点号 + 7 位序号，例如 ORD20260101120000010000001。
+ * 秒和序号打包在一个 AtomicLong 中用 CAS 递增，无锁、单调递增、不访问数据库，每节点每秒 1000 万个；
+ * 同一秒序号用完或系统时钟回拨时沿用并借用后续秒数，保证不重复。不同节点通过 app.node-id 区分。
+ */
+@Component
+public class OrderNoGenerator {
+
+    public static final String PREFIX = "ORD";
+    public static final int MAX_NODE_ID = 99;
+    static final long MAX_SEQUENCE = 9_999_999L;
+
+    private static final int SEQUENCE_BITS = 24;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final String node;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // 高位：epoch 秒，低 24 位：该秒内序号
+    private final AtomicLong state = new AtomicLong();
+
+    // 最近一次格式化的秒及其前缀，避免每次都格式化时间
+    private volatile SecondPrefix lastPrefix = new SecondPrefix(-1, "");
+
+    @Autowired
+    public OrderNoGenerator(@Value("${app.node-id:0}") int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    OrderNoGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在 0 ~ " + MAX_NODE_ID + " 之间");
+        }
+        this.node = String.format("%02d", nodeId);
+        this.clock = clock;
+    }
+
+    /**
+     * 生成下一个订单号
+     */
+    public String next() {
+        long now = Math.floorDiv(clock.getAsLong(), 1000L);
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long second = current >>> SEQUENCE_BITS;
+            long sequence = current & SEQUENCE_MASK;
+            if (now > second) {
+                next = now << SEQUENCE_BITS;
+            } else if (sequence < MAX_SEQUENCE) {
+                next = current + 1;
+            } else {
+                next = (second + 1) << SEQUENCE_BITS;
+            }
+        } while (!state.compareAndSet(current, next));
+        return format(next >>> SEQUENCE_BITS, next & SEQUENCE_MASK);
+    }
+
+    private String format(long second, long sequence) {
+        SecondPrefix prefix = lastPrefix;
+        if (prefix.second != second) {
+            String time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), zone).format(SECOND_FORMAT);
+            prefix = new SecondPrefix(second, PREFIX + time + node);
+            lastPrefix = prefix;
+        }
+        StringBuilder sb = new StringBuilder(prefix.prefix.length() + 7).append(prefix.prefix);
+        String digits = Long.toString(sequence);
+        for (int i = digits.length(); i < 7; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static final class SecondPrefix {
+        private final long second;
+        private final String prefix;
+
+        private SecondPrefix(long second, String prefix) {
+            this.second = second;
+            this.prefix = prefix;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 可扩容的布隆过滤器（Scalable Bloom Filter）
+ * 由若干级布隆过滤器组成，当前级写满后追加一级容量翻倍、误判率减半的新过滤器，
+ * 各级误判率之和收敛于 2 × 首级误判率，因此首级取目标误判率的一半，总体不超过目标值。
+ * 只支持添加不支持删除：mightContain 返回 false 表示一定不存在，返回 true 表示可能存在。
+ * 线程安全，位数组使用 CAS 置位。
+ */
+public class ScalableBloomFilter {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private volatile Stage[] stages;
+
+    /**
+     * @param initialCapacity 首级预计元素数
+     * @param falsePositiveRate 目标误判率（0 ~ 1）
+     */
+    public ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity 必须大于 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate 必须在 0 和 1 之间");
+        }
+        this.stages = new Stage[] {new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO))};
+    }
+
+    /**
+     * 添加元素，空值忽略
+     */
+    public void add(String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        long h1 = HyperLogLog.hash(value);
+        long h2 = mix(h1);
+        if (contains(stages, h1, h2)) {
+            return;
+        }
+        Stage stage = stages[stages.length - 1];
+        if (stage.count.get() >= stage.capacity) {
+            stage = grow(stage);
+        }
+        stage.add(h1, h2);
+    }
+
+    /**
+     * 元素是否可能存在，false 表示一定不存在
+     */
+    public boolean mightContain(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        long h1 = HyperLogLog.hash(value);
+        return contains(stages, h1, mix(h1));
+    }
+
+    /**
+     * 已添加的元素数（近似，重复添加判定为已存在的元素不计入）
+     */
+    public long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.count.get();
+        }
+        return size;
+    }
+
+    /**
+     * 占用的位数组字节数
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += (long) stage.bits.length() * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage[] current = stages;
+        Stage last = current[current.length - 1];
+        if (last != full) {
+            // 其他线程已扩容
+            return last;
+        }
+        long capacity = Math.min((long) full.capacity * 2, Integer.MAX_VALUE / 16);
+        Stage next = new Stage((int) capacity, full.falsePositiveRate * TIGHTENING_RATIO);
+        Stage[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = next;
+        stages = grown;
+        return next;
+    }
+
+    private static boolean contains(Stage[] stages, long h1, long h2) {
+        for (Stage stage : stages) {
+            if (stage.contains(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 由第一个哈希派生第二个哈希（MurmurHash3 fmix64），用于双重哈希生成 k 个位置
+     */
+    private static long mix(long h) {
+        h ^= 0x9e3779b97f4a7c15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h | 1;
+    }
+
+    /**
+     * 单级布隆过滤器
+     */
+    private static final class Stage {
+        private final int capacity;
+        private final double falsePositiveRate;
+        private final long numBits;
+        private final int numHashes;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            double ln2 = Math.log(2);
+            long words = Math.max(1, (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2) / 64));
+            this.numBits = words * 64;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacity * ln2));
+            this.bits = new AtomicLongArray(Math.toIntExact(words));
+        }
+
+        private void add(long h1, long h2) {
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old = bits.get(word);
+                while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask)) {
+                    old = bits.get(word);
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        private boolean contains(long h1, long h2) {
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving 高频项统计（Metwally et al.）
+ * 最多监控 capacity 个元素，内存固定，适合持续写入场景下的 Top-K 查询。
+ *
+ * 误差界：设累计写入总量为 N，对任一被监控元素，返回的计数 count 满足
+ * count - error <= 真实计数 <= count，且 error <= N / capacity；
+ * 真实计数超过 N / capacity 的元素一定在监控集合中。
+ * remove 只扣减已监控元素的计数，不影响上述上界。
+ */
+public class SpaceSaving {
+
+    private static final Comparator<Counter> ORDER =
+        Comparator.comparingLong((Counter c) -> c.count).thenComparing(c -> c.item);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> sorted = new TreeSet<>(ORDER);  // 按计数升序
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * 用精确计数初始化，只保留计数最大的 capacity 个元素
+     */
+    public synchronized void seed(Map<String, Long> exactCounts) {
+        counters.clear();
+        sorted.clear();
+        total = 0;
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(exactCounts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> entry : entries) {
+            total += entry.getValue();
+            if (counters.size() < capacity && entry.getValue() > 0) {
+                Counter counter = new Counter(entry.getKey(), entry.getValue(), 0);
+                counters.put(counter.item, counter);
+                sorted.add(counter);
+            }
+        }
+    }
+
+    /**
+     * 写入一个元素
+     */
+    public synchronized void offer(String item, long weight) {
+        if (item == null || weight <= 0) {
+            return;
+        }
+        total += weight;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            sorted.remove(counter);
+            counter.count += weight;
+            sorted.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(item, weight, 0);
+        } else {
+            // 替换计数最小的元素，继承其计数作为误差
+            Counter min = sorted.pollFirst();
+            counters.remove(min.item);
+            counter = new Counter(item, min.count + weight, min.count);
+        }
+        counters.put(item, counter);
+        sorted.add(counter);
+    }
+
+    /**
+     * 扣减一个元素（如订单删除），未被监控的元素忽略
+     */
+    public synchronized void remove(String item, long weight) {
+        if (item == null || weight <= 0) {
+            return;
+        }
+        total = Math.max(0, total - weight);
+        Counter counter = counters.get(item);
+        if (counter == null) {
+            return;
+        }
+        sorted.remove(counter);
+        counter.count -= weight;
+        counter.error = Math.min(counter.error, counter.count);
+        if (counter.count > 0) {
+            sorted.add(counter);
+        } else {
+            counters.remove(item);
+        }
+    }
+
+    /**
+     * 按计数降序返回前 limit 个元素
+     */
+    public synchronized Map<String, Long> top(int limit) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        Iterator<Counter> it = sorted.descendingIterator();
+        while (it.hasNext() && result.size() < limit) {
+            Counter counter = it.next();
+            result.put(counter.item, counter.count);
+        }
+        return result;
+    }
+
+    /**
+     * 当前误差上界 N / capacity
+     */
+    public synchronized long maxError() {
+        return total / capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Counter {
+        private final String item;
+        private long count;
+        private long error;
+
+        private Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字符串字典编码
+ * 把取值较少的字符串列（状态、快递公司、城市等）映射为从 0 开始的连续编码，
+ * 列式存储中只保存编码，字典只追加不删除。空值编码为 -1。
+ * 非线程安全，由调用方加锁。
+ */
+public class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+
+    /**
+     * 获取编码，不存在时分配新编码
+     */
+    public int encode(String value) {
+        if (value == null || value.isEmpty()) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int newCode = codes.size();
+        if (newCode == values.length) {
+            values = Arrays.copyOf(values, newCode * 2);
+        }
+        values[newCode] = value;
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    /**
+     * 查询已有编码，不存在返回 NULL_CODE
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(value, NULL_CODE);
+    }
+
+    public String decode(int code) {
+        return code >= 0 && code < codes.size() ? values[code] : null;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
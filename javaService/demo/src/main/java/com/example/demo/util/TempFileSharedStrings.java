@@ -0,0 +1,205 @@
+package com.example.demo.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 落盘的共享字符串表（只读）
+ * Excel 保存的文件把所有文本单元格（姓名、地址、订单号等）集中放在共享字符串表中，
+ * POI 的 ReadOnlySharedStringsTable 会把整张表读入堆内存，占用随文件增长。
+ * 这里流式解析后写入临时文件：数据文件按 [长度][UTF-8 字节] 顺序存放，索引文件按序号存放 8 字节偏移，
+ * 读取时按位置随机读，堆中只保留一个固定大小的最近读取缓存。关闭时删除临时文件。
+ */
+final class TempFileSharedStrings implements SharedStrings, Closeable {
+
+    // 直接映射缓存大小（2 的幂），快递公司、货物类型等重复值基本命中缓存
+    private static final int CACHE_SIZE = 4096;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private FileChannel data;
+    private FileChannel index;
+    private int count;
+    private int uniqueCount;
+
+    private final ByteBuffer offsetBuffer = ByteBuffer.allocate(Long.BYTES);
+    private final ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+    private final int[] cachedIndexes = new int[CACHE_SIZE];
+    private final String[] cachedValues = new String[CACHE_SIZE];
+
+    TempFileSharedStrings(OPCPackage pkg) throws IOException, SAXException, ParserConfigurationException {
+        this.dataFile = Files.createTempFile("sst-data-", ".bin");
+        this.indexFile = Files.createTempFile("sst-index-", ".bin");
+        Arrays.fill(cachedIndexes, -1);
+        try {
+            List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!parts.isEmpty()) {
+                try (InputStream in = parts.get(0).getInputStream();
+                     DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile)));
+                     DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new Writer(dataOut, indexOut));
+                    parser.parse(new InputSource(in));
+                }
+            }
+            this.data = FileChannel.open(dataFile, StandardOpenOption.READ);
+            this.index = FileChannel.open(indexFile, StandardOpenOption.READ);
+        } catch (IOException | SAXException | ParserConfigurationException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getString(idx));
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    private String getString(int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new IllegalArgumentException("共享字符串序号越界: " + idx);
+        }
+        int slot = idx & (CACHE_SIZE - 1);
+        if (cachedIndexes[slot] == idx) {
+            return cachedValues[slot];
+        }
+        try {
+            offsetBuffer.clear();
+            readFully(index, offsetBuffer, (long) idx * Long.BYTES);
+            long offset = offsetBuffer.getLong(0);
+            lengthBuffer.clear();
+            readFully(data, lengthBuffer, offset);
+            ByteBuffer bytes = ByteBuffer.allocate(lengthBuffer.getInt(0));
+            readFully(data, bytes, offset + Integer.BYTES);
+            String value = new String(bytes.array(), StandardCharsets.UTF_8);
+            cachedIndexes[slot] = idx;
+            cachedValues[slot] = value;
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("共享字符串临时文件已损坏");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (data != null) {
+                data.close();
+            }
+            if (index != null) {
+                index.close();
+            }
+        } finally {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    /**
+     * 解析 sst.xml：每个 si 取其中 t 元素的文本（含富文本分段），忽略拼音注音 rPh
+     */
+    private final class Writer extends DefaultHandler {
+        private final DataOutputStream dataOut;
+        private final DataOutputStream indexOut;
+        private final StringBuilder text = new StringBuilder();
+        private long offset;
+        private boolean inText;
+        private boolean inPhonetic;
+
+        private Writer(DataOutputStream dataOut, DataOutputStream indexOut) {
+            this.dataOut = dataOut;
+            this.indexOut = indexOut;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "sst" -> {
+                    String total = attributes.getValue("count");
+                    if (total != null) {
+                        count = Integer.parseInt(total);
+                    }
+                }
+                case "si" -> text.setLength(0);
+                case "rPh" -> inPhonetic = true;
+                case "t" -> inText = !inPhonetic;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "si" -> write();
+                case "rPh" -> inPhonetic = false;
+                case "t" -> inText = false;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void write() throws SAXException {
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                indexOut.writeLong(offset);
+                dataOut.writeInt(bytes.length);
+                dataOut.write(bytes);
+            } catch (IOException e) {
+                throw new SAXException("共享字符串写入临时文件失败", e);
+            }
+            offset += Integer.BYTES + bytes.length;
+            uniqueCount++;
+        }
+    }
+}
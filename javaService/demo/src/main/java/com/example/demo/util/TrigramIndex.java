@@ -0,0 +1,271 @@
+package com.example.demo.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 三元组（trigram）倒排索引，用于多字段子串查询
+ * 每个文档由固定数量的字段组成，每个字段的每个连续 3 字符片段对应一个按 id 升序的倒排表；
+ * 查询时取查询词所有片段倒排表的交集作为候选集。候选集是结果的超集（片段都出现不代表连续出现），
+ * 调用方仍需用原条件过滤。
+ * 字段和查询词统一做 NFKC 规范化（全角转半角）并转小写，与 MySQL 大小写不敏感排序规则一致；
+ * 排序规则还会把重音字母等与其他字符视为相等，其折叠方式无法在此复现，因此规范化后含 ASCII 和汉字以外字符的字段
+ * 不建片段，记入该字段的“未索引”集合并总是作为候选返回，含这类字符的查询词不使用索引。
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final int fieldCount;
+    private final Map<String, PostingList> postings = new HashMap<>();  // key: 字段下标 + 片段
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final PostingList[] unindexed;  // 每个字段中无法按片段索引的文档
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+        this.unindexed = new PostingList[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            unindexed[f] = new PostingList();
+        }
+    }
+
+    /**
+     * 写入或替换文档
+     */
+    public void put(long id, String... fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("字段数量应为 " + fieldCount);
+        }
+        String[] normalized = new String[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            normalized[f] = normalize(fields[f]);
+        }
+        lock.writeLock().lock();
+        try {
+            String[] old = documents.put(id, normalized);
+            for (int f = 0; f < fieldCount; f++) {
+                String before = old != null ? old[f] : null;
+                if (before != null && before.equals(normalized[f])) {
+                    continue;
+                }
+                if (before != null) {
+                    unlink(id, f, before);
+                }
+                if (normalized[f] != null) {
+                    link(id, f, normalized[f]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 仅在文档不存在时写入（用于全量构建，避免覆盖构建期间由事件写入的更新值）
+     */
+    public boolean putIfAbsent(long id, String... fields) {
+        lock.writeLock().lock();
+        try {
+            if (documents.containsKey(id)) {
+                return false;
+            }
+            put(id, fields);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String[] old = documents.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (int f = 0; f < fieldCount; f++) {
+                if (old[f] != null) {
+                    unlink(id, f, old[f]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(long id, int field, String text) {
+        if (!indexable(text)) {
+            unindexed[field].add(id);
+            return;
+        }
+        for (String gram : grams(field, text)) {
+            postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+        }
+    }
+
+    private void unlink(long id, int field, String text) {
+        if (!indexable(text)) {
+            unindexed[field].remove(id);
+            return;
+        }
+        for (String gram : grams(field, text)) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * 查询字段包含 term 的候选 id（含该字段未索引的文档）
+     * @return 升序 id 数组；term 短于 3 个字符、含 LIKE 通配符或转义符（% _ \）、
+     *         或含 ASCII 和汉字以外的字符无法使用索引时返回 null
+     */
+    public long[] candidates(int field, String term) {
+        if (term == null || term.indexOf('%') >= 0 || term.indexOf('_') >= 0 || term.indexOf('\\') >= 0) {
+            return null;
+        }
+        String normalized = normalize(term);
+        if (normalized == null || normalized.length() < GRAM || !indexable(normalized)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排表开始求交集
+            PostingList[] lists = grams(field, normalized).stream()
+                .map(postings::get)
+                .toArray(PostingList[]::new);
+            PostingList extra = unindexed[field];
+            for (PostingList list : lists) {
+                if (list == null) {
+                    return Arrays.copyOf(extra.ids, extra.size);
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int length = result.length;
+            for (int l = 1; l < lists.length && length > 0; l++) {
+                int kept = 0;
+                for (int i = 0; i < length; i++) {
+                    if (lists[l].contains(result[i])) {
+                        result[kept++] = result[i];
+                    }
+                }
+                length = kept;
+            }
+            return union(result, length, extra.ids, extra.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> grams(int field, String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(field + text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * 两个升序数组的并集（两者 id 不重复：同一文档的同一字段要么建片段，要么未索引）
+     */
+    private static long[] union(long[] a, int aLength, long[] b, int bLength) {
+        long[] result = new long[aLength + bLength];
+        int i = 0, j = 0, k = 0;
+        while (i < aLength && j < bLength) {
+            result[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        while (i < aLength) {
+            result[k++] = a[i++];
+        }
+        while (j < bLength) {
+            result[k++] = b[j++];
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null || text.isEmpty()
+            ? null : Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 规范化后只含 ASCII 和汉字时，排序规则下的相等与规范化后的相等一致，可以按片段匹配
+     */
+    private static boolean indexable(String normalized) {
+        for (int i = 0; i < normalized.length(); ) {
+            int c = normalized.codePointAt(i);
+            if (c >= 0x80 && Character.UnicodeScript.of(c) != Character.UnicodeScript.HAN) {
+                return false;
+            }
+            i += Character.charCount(c);
+        }
+        return true;
+    }
+
+    /**
+     * 按 id 升序的倒排表，订单 id 自增，绝大多数写入追加在末尾
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        private void insert(int position, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -22,6 +22,7 @@ USE logistics;
 --     receiver_phone VARCHAR(20),
 --     status VARCHAR(20),
 --     create_time VARCHAR(50),
+--     created_at DATETIME(6),
 --     tracking_no VARCHAR(50),
 --     duration INT,
 --     track_points_json TEXT,
@@ -31,5 +32,27 @@ USE logistics;
 --     origin_lng DOUBLE,
 --     origin_lat DOUBLE,
 --     dest_lng DOUBLE,
---     dest_lat DOUBLE
+--     dest_lat DOUBLE,
+--     updated_at DATETIME(6),
+--     INDEX idx_orders_created_at (created_at),
+--     INDEX idx_orders_updated_at (updated_at)
+-- );
+
+-- 订单日汇总表（由 OrderDailyStatsAggregator 维护）
+-- CREATE TABLE IF NOT EXISTS order_daily_stats (
+--     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+--     stat_date DATE,
+--     status VARCHAR(20),
+--     express_company VARCHAR(50),
+--     origin_city VARCHAR(255),
+--     destination_city VARCHAR(255),
+--     order_count BIGINT,
+--     INDEX idx_order_daily_stats_date (stat_date)
+-- );
+
+-- 统计任务水位表
+-- CREATE TABLE IF NOT EXISTS stat_checkpoints (
+--     name VARCHAR(50) PRIMARY KEY,
+--     watermark DATETIME(6),
+--     update_time DATETIME(6)
 -- );
@@ -0,0 +1,72 @@
+package com.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单查询索引基准
+ * 对每条按手机号、状态、运单号、订单号查询的 SQL，分别在 IGNORE INDEX（相当于加索引前）和使用索引时
+ * 输出执行计划并统计平均耗时。需要连接已有数据的数据库，默认跳过：
+ * mvn test -Dtest=OrderIndexBenchmarkTests -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderIndexBenchmarkTests {
+
+	private static final int WARMUP = 5;
+	private static final int RUNS = 50;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void compareQueryPlans() {
+		Map<String, Object> sample = jdbcTemplate.queryForMap(
+			"SELECT sender_phone, receiver_phone, status, tracking_no, order_no FROM orders "
+				+ "WHERE tracking_no IS NOT NULL ORDER BY id DESC LIMIT 1");
+
+		run("orders", "idx_orders_sender_phone_id",
+			"SELECT * FROM orders %s WHERE sender_phone = ? ORDER BY id DESC LIMIT 20", sample.get("sender_phone"));
+		run("orders", "idx_orders_receiver_phone_id",
+			"SELECT * FROM orders %s WHERE receiver_phone = ? ORDER BY id DESC LIMIT 20", sample.get("receiver_phone"));
+		run("orders", "idx_orders_status_id",
+			"SELECT * FROM orders %s WHERE status = ? ORDER BY id DESC LIMIT 20", sample.get("status"));
+		run("orders", "idx_orders_tracking_no",
+			"SELECT * FROM orders %s WHERE tracking_no = ?", sample.get("tracking_no"));
+		run("operation_logs", "idx_operation_logs_order_no_time",
+			"SELECT * FROM operation_logs %s WHERE order_no = ? ORDER BY operate_time DESC", sample.get("order_no"));
+	}
+
+	private void run(String table, String index, String sqlTemplate, Object param) {
+		String before = String.format(sqlTemplate, "IGNORE INDEX (" + index + ")");
+		String after = String.format(sqlTemplate, "");
+		System.out.printf("%n== %s.%s ==%n", table, index);
+		System.out.printf("无索引: %s | 平均 %.3f ms%n", plan(before, param), measure(before, param));
+		System.out.printf("有索引: %s | 平均 %.3f ms%n", plan(after, param), measure(after, param));
+	}
+
+	private String plan(String sql, Object param) {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, param);
+		Map<String, Object> row = rows.get(0);
+		return "type=" + row.get("type") + ", key=" + row.get("key") + ", rows=" + row.get("rows")
+			+ ", extra=" + row.get("Extra");
+	}
+
+	private double measure(String sql, Object param) {
+		for (int i = 0; i < WARMUP; i++) {
+			jdbcTemplate.queryForList(sql, param);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			jdbcTemplate.queryForList(sql, param);
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / RUNS;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportResultDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 订单导入基准：导入 10 万行 Excel，输出耗时和每秒行数
+ * 会向数据库写入并在结束后删除测试订单，只应在测试库运行，默认跳过：
+ * mvn test -Dtest=OrderImportBenchmarkTests -Dbenchmark=true
+ * 对比逐行 INSERT 时追加 -Dspring.jpa.properties.hibernate.jdbc.batch_size=1
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderImportBenchmarkTests {
+
+	private static final int ROWS = 100_000;
+	private static final String ORDER_NO_PREFIX = "BENCH";
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM orders WHERE order_no LIKE ?", ORDER_NO_PREFIX + "%");
+	}
+
+	@Test
+	void import100kRows() throws IOException {
+		MockMultipartFile file = new MockMultipartFile("file", "orders.xlsx",
+			"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", buildWorkbook());
+
+		long start = System.nanoTime();
+		ImportResultDTO result = orderService.importOrders(file);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		assertEquals(ROWS, result.getSuccess());
+		System.out.printf("%n导入 %d 行，耗时 %.2f s，%.0f 行/s%n", ROWS, seconds, ROWS / seconds);
+	}
+
+	private static byte[] buildWorkbook() throws IOException {
+		String[] headers = {"订单号", "货物名称", "货物类型", "重量(kg)", "体积(m³)", "数量(件)",
+			"发货人", "发货人电话", "发货地址", "收货人", "收货人电话", "收货地址", "快递公司", "备注"};
+		try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000);
+			 ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("订单数据");
+			Row header = sheet.createRow(0);
+			for (int i = 0; i < headers.length; i++) {
+				header.createCell(i).setCellValue(headers[i]);
+			}
+			for (int r = 1; r <= ROWS; r++) {
+				Row row = sheet.createRow(r);
+				row.createCell(0).setCellValue(String.format("%s%010d", ORDER_NO_PREFIX, r));
+				row.createCell(1).setCellValue("测试货物");
+				row.createCell(2).setCellValue("normal");
+				row.createCell(3).setCellValue(1.5);
+				row.createCell(4).setCellValue(0.01);
+				row.createCell(5).setCellValue(1);
+				row.createCell(6).setCellValue("张三");
+				row.createCell(7).setCellValue(String.format("138%08d", r % 1000));
+				row.createCell(8).setCellValue("广东省深圳市南山区科技园");
+				row.createCell(9).setCellValue("李四");
+				row.createCell(10).setCellValue(String.format("139%08d", r % 5000));
+				row.createCell(11).setCellValue("浙江省杭州市西湖区文三路");
+				row.createCell(12).setCellValue("sf");
+				row.createCell(13).setCellValue("");
+			}
+			workbook.write(out);
+			workbook.dispose();
+			return out.toByteArray();
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportResultDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 订单导入：批次写入失败后逐行重试
+ * 会向数据库写入并在结束后删除测试订单
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class OrderImportTests {
+
+	private static final String ORDER_NO_PREFIX = "IMPTEST";
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM orders WHERE order_no LIKE ?", ORDER_NO_PREFIX + "%");
+	}
+
+	@Test
+	void failedChunkKeepsOtherRows() throws IOException {
+		// 第 3 条与第 1 条只差大小写：批内查重和过滤器都不拦截，唯一索引（不区分大小写的排序规则）使整批提交失败
+		List<String> orderNos = List.of(ORDER_NO_PREFIX + "-A1", ORDER_NO_PREFIX + "-A2",
+			ORDER_NO_PREFIX.toLowerCase() + "-a1", ORDER_NO_PREFIX + "-A4", ORDER_NO_PREFIX + "-A5");
+		MockMultipartFile file = new MockMultipartFile("file", "orders.xlsx",
+			"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", buildWorkbook(orderNos));
+
+		ImportResultDTO result = orderService.importOrders(file);
+
+		assertEquals(5, result.getTotal());
+		assertEquals(4, result.getSuccess());
+		assertEquals(1, result.getFailed());
+		assertEquals(1, result.getErrors().size());
+		assertEquals(4, result.getErrors().get(0).getRow());
+		List<String> saved = jdbcTemplate.queryForList(
+			"SELECT order_no FROM orders WHERE order_no LIKE ? ORDER BY order_no", String.class, ORDER_NO_PREFIX + "%");
+		assertEquals(List.of(ORDER_NO_PREFIX + "-A1", ORDER_NO_PREFIX + "-A2", ORDER_NO_PREFIX + "-A4",
+			ORDER_NO_PREFIX + "-A5"), saved);
+	}
+
+	private static byte[] buildWorkbook(List<String> orderNos) throws IOException {
+		String[] headers = {"订单号", "货物名称", "货物类型", "重量(kg)", "体积(m³)", "数量(件)",
+			"发货人", "发货人电话", "发货地址", "收货人", "收货人电话", "收货地址", "快递公司", "备注"};
+		try (XSSFWorkbook workbook = new XSSFWorkbook();
+			 ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			Sheet sheet = workbook.createSheet("订单数据");
+			Row header = sheet.createRow(0);
+			for (int i = 0; i < headers.length; i++) {
+				header.createCell(i).setCellValue(headers[i]);
+			}
+			for (int r = 0; r < orderNos.size(); r++) {
+				Row row = sheet.createRow(r + 1);
+				row.createCell(0).setCellValue(orderNos.get(r));
+				row.createCell(1).setCellValue("测试货物");
+				row.createCell(2).setCellValue("normal");
+				row.createCell(3).setCellValue(1.5);
+				row.createCell(4).setCellValue(0.01);
+				row.createCell(5).setCellValue(1);
+				row.createCell(6).setCellValue("张三");
+				row.createCell(7).setCellValue("13800000001");
+				row.createCell(8).setCellValue("广东省深圳市南山区科技园");
+				row.createCell(9).setCellValue("李四");
+				row.createCell(10).setCellValue("13900000001");
+				row.createCell(11).setCellValue("浙江省杭州市西湖区文三路");
+				row.createCell(12).setCellValue("sf");
+				row.createCell(13).setCellValue("");
+			}
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+}
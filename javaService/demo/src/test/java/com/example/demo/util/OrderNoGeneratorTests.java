@@ -0,0 +1,89 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderNoGeneratorTests {
+
+	private static final Pattern FORMAT = Pattern.compile("ORD\\d{14}07\\d{7}");
+
+	@Test
+	void concurrentGenerationHasNoDuplicates() throws Exception {
+		OrderNoGenerator generator = new OrderNoGenerator(7);
+		int threads = 8;
+		int perThread = 250_000;
+		Set<String> seen = ConcurrentHashMap.newKeySet(threads * perThread);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					String previous = "";
+					for (int i = 0; i < perThread; i++) {
+						String orderNo = generator.next();
+						assertTrue(FORMAT.matcher(orderNo).matches(), orderNo);
+						// 同一线程内单调递增（定长，字符串顺序即数值顺序）
+						assertTrue(orderNo.compareTo(previous) > 0, orderNo + " <= " + previous);
+						assertTrue(seen.add(orderNo), "重复订单号 " + orderNo);
+						previous = orderNo;
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(threads * perThread, seen.size());
+	}
+
+	@Test
+	void clockGoingBackwardsStaysMonotonic() {
+		AtomicLong now = new AtomicLong(1_800_000_000_000L);
+		OrderNoGenerator generator = new OrderNoGenerator(7, now::get);
+		String first = generator.next();
+		now.addAndGet(-60_000);
+		String second = generator.next();
+		assertTrue(second.compareTo(first) > 0, second + " <= " + first);
+	}
+
+	@Test
+	void sequenceExhaustionBorrowsNextSecond() {
+		AtomicLong now = new AtomicLong(1_800_000_000_000L);
+		OrderNoGenerator generator = new OrderNoGenerator(7, now::get);
+		String previous = "";
+		for (long i = 0; i <= OrderNoGenerator.MAX_SEQUENCE; i++) {
+			previous = generator.next();
+		}
+		String next = generator.next();
+		assertTrue(previous.endsWith("9999999"), previous);
+		assertTrue(next.endsWith("0000000"), next);
+		assertTrue(next.compareTo(previous) > 0, next + " <= " + previous);
+	}
+
+	@Test
+	void rejectsNodeIdOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> new OrderNoGenerator(100));
+		assertThrows(IllegalArgumentException.class, () -> new OrderNoGenerator(-1));
+	}
+
+}
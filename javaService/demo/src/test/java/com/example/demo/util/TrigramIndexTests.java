@@ -0,0 +1,54 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TrigramIndexTests {
+
+	@Test
+	void matchesIgnoringCaseAndWidth() {
+		TrigramIndex index = new TrigramIndex(1);
+		index.put(1, "ORD2024ABC");
+		index.put(2, "ＯＲＤ２０２４ＸＹＺ");
+		index.put(3, "顺丰快递包裹");
+
+		assertArrayEquals(new long[] {1, 2}, index.candidates(0, "ord2024"));
+		assertArrayEquals(new long[] {1}, index.candidates(0, "ＡＢＣ"));
+		assertArrayEquals(new long[] {3}, index.candidates(0, "快递包"));
+		assertArrayEquals(new long[0], index.candidates(0, "中通快"));
+	}
+
+	@Test
+	void documentsWithFoldedCharactersAreAlwaysCandidates() {
+		// 排序规则下 é 与 e 相等，索引无法复现，含这类字符的文档总是作为候选
+		TrigramIndex index = new TrigramIndex(2);
+		index.put(1, "Émile Zola", "张三");
+		index.put(2, "Emil", "李四");
+		index.put(3, "Hans", "阿卜杜拉·买买提");
+
+		assertArrayEquals(new long[] {1, 2}, index.candidates(0, "emil"));
+		assertArrayEquals(new long[] {1}, index.candidates(0, "zol"));
+		assertArrayEquals(new long[] {3}, index.candidates(1, "买买提"));
+
+		index.put(1, "Emile Zola", "张三");
+		assertArrayEquals(new long[] {1, 2}, index.candidates(0, "emil"));
+		assertArrayEquals(new long[] {1}, index.candidates(0, "zol"));
+		index.remove(3);
+		assertArrayEquals(new long[0], index.candidates(1, "买买提"));
+	}
+
+	@Test
+	void termsThatLikeTreatsSpeciallyAreNotIndexed() {
+		TrigramIndex index = new TrigramIndex(1);
+		index.put(1, "a_b\\c");
+
+		assertNull(index.candidates(0, "a_b"));
+		assertNull(index.candidates(0, "b%c"));
+		assertNull(index.candidates(0, "b\\c"));
+		assertNull(index.candidates(0, "émi"));
+		assertNull(index.candidates(0, "ab"));
+	}
+
+}